@@ -0,0 +1,67 @@
+package com.iftm.client.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.iftm.client.DsclientApplication;
+import com.iftm.client.reactive.ReactiveClientApplication;
+
+/*
+ * Boots the application against a private in-memory H2 database, without a web server
+ * for use from JMH @Setup methods, or with one on a random port for load tests.
+ */
+public final class BenchmarkApplication {
+
+	private BenchmarkApplication() {
+	}
+
+	public static ConfigurableApplicationContext start(String... properties) {
+		return start(WebApplicationType.NONE, properties);
+	}
+
+	public static ConfigurableApplicationContext startWeb(String... properties) {
+		List<String> args = new ArrayList<>(List.of(properties));
+		args.add("server.port=0");
+		return start(WebApplicationType.SERVLET, args.toArray(new String[0]));
+	}
+
+	/*
+	 * ReactiveClientApplication on a random port over the same private database, seeded
+	 * by a short-lived non-web start of the servlet application first.
+	 */
+	public static ConfigurableApplicationContext startReactive(String... properties) {
+		start(properties).close();
+		List<String> args = new ArrayList<>();
+		args.add("--logging.level.root=WARN");
+		args.add("--server.port=0");
+		args.add("--spring.r2dbc.url=r2dbc:h2:mem:///benchmark;DB_CLOSE_DELAY=-1");
+		args.add("--spring.flyway.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+		for (String property : properties) {
+			args.add("--" + property);
+		}
+		return ReactiveClientApplication.builder()
+				.bannerMode(Banner.Mode.OFF)
+				.run(args.toArray(new String[0]));
+	}
+
+	private static ConfigurableApplicationContext start(WebApplicationType type, String... properties) {
+		List<String> args = new ArrayList<>();
+		args.add("--logging.level.root=WARN");
+		args.add("--logging.level.com.iftm.client=INFO");
+		args.add("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+		for (String property : properties) {
+			args.add("--" + property);
+		}
+		// command-line arguments so they win over application*.properties
+		return new SpringApplicationBuilder(DsclientApplication.class)
+				.web(type)
+				.bannerMode(Banner.Mode.OFF)
+				.run(args.toArray(new String[0]));
+	}
+
+}
@@ -0,0 +1,73 @@
+package com.iftm.client.benchmark;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.entities.Client;
+
+/*
+ * CPU-only costs of the read path: copying entities into DTOs and serializing a
+ * Page<ClientDTO> with the same Jackson configuration Spring MVC uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ClientDtoBenchmark {
+
+	@Param({ "12", "100" })
+	public int pageSize;
+
+	private Client entity;
+	private Page<ClientDTO> page;
+	private ObjectMapper objectMapper;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		entity = new Client(1L, "Conceição Evaristo", "10619244881", 1500.0, Instant.parse("2020-07-13T20:50:00Z"), 2);
+		List<ClientDTO> content = IntStream.range(0, pageSize)
+				.mapToObj(i -> new ClientDTO((long) i, "Client " + i, String.format("9%010d", i), 1000.0 + i,
+						Instant.parse("1980-01-01T00:00:00Z"), i % 4))
+				.collect(Collectors.toList());
+		page = new PageImpl<>(content, PageRequest.of(3, pageSize), 100000);
+		objectMapper = Jackson2ObjectMapperBuilder.json()
+				.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+	}
+
+	@Benchmark
+	public ClientDTO dtoFromEntity() {
+		return new ClientDTO(entity);
+	}
+
+	@Benchmark
+	public byte[] serializePage() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(page);
+	}
+
+}
@@ -0,0 +1,72 @@
+package com.iftm.client.benchmark;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.services.ClientService;
+
+/*
+ * Rows per second written by POST /clients (one transaction per row) against
+ * POST /clients/batch (one transaction, JDBC batches).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+public class ClientInsertBenchmark {
+
+	private static final int ROWS = 1000;
+
+	private ConfigurableApplicationContext context;
+	private ClientService service;
+	private List<ClientDTO> batch;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkApplication.start();
+		service = context.getBean(ClientService.class);
+		batch = new ArrayList<>(ROWS);
+		for (int i = 0; i < ROWS; i++) {
+			batch.add(new ClientDTO(null, "Client " + i, String.format("%011d", i), 1000.0 + i,
+					Instant.parse("1980-01-01T00:00:00Z"), i % 4));
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public void rowByRow() {
+		for (ClientDTO dto : batch) {
+			service.insert(dto);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public List<ClientDTO> batched() {
+		return service.insertAll(batch);
+	}
+
+}
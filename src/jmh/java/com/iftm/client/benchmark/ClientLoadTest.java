@@ -0,0 +1,117 @@
+package com.iftm.client.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/*
+ * Closed-loop HTTP load against the Client API for comparing client.execution.mode
+ * settings, or the servlet stack with the WebFlux/R2DBC one (mode reactive). Each
+ * simulated client loops on GET /clients/{id} (90%) and GET /clients?page=n (10%,
+ * first 100 pages) over a seeded database and records latencies.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.iftm.client.benchmark.ClientLoadTest \
+ *     -Djmh.args="<default|bounded|virtual|reactive> <clients> <seconds> [rows]"
+ */
+public final class ClientLoadTest {
+
+	private ClientLoadTest() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		String mode = args.length > 0 ? args[0] : "default";
+		int clients = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+		int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+		int rows = args.length > 3 ? Integer.parseInt(args[3]) : 100_000;
+
+		List<String> properties = new ArrayList<>(List.of("client.seed.rows=" + rows,
+				"spring.jpa.properties.hibernate.cache.use_query_cache=false"));
+		if (!"default".equals(mode) && !"reactive".equals(mode)) {
+			properties.add("client.execution.mode=" + mode);
+		}
+		String[] settings = properties.toArray(new String[0]);
+		try (ConfigurableApplicationContext context = "reactive".equals(mode) ? BenchmarkApplication.startReactive(settings)
+				: BenchmarkApplication.startWeb(settings)) {
+			int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+			String base = "http://localhost:" + port + "/clients";
+			HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+					.connectTimeout(Duration.ofSeconds(10)).build();
+
+			// warm-up
+			run(http, base, rows, clients, 5);
+			Result result = run(http, base, rows, clients, seconds);
+			System.out.printf("mode=%s clients=%d rows=%d: %.0f req/s, errors=%d, p50=%.1fms p99=%.1fms p99.9=%.1fms max=%.1fms%n",
+					mode, clients, rows, result.count / (double) seconds, result.errors, result.percentile(0.5),
+					result.percentile(0.99), result.percentile(0.999), result.percentile(1.0));
+		}
+	}
+
+	private static Result run(HttpClient http, String base, int rows, int clients, int seconds)
+			throws InterruptedException {
+		long end = System.nanoTime() + seconds * 1_000_000_000L;
+		Histogram latencies = new ConcurrentHistogram(3);
+		LongAdder errors = new LongAdder();
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < clients; i++) {
+			Thread thread = new Thread(() -> {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				while (System.nanoTime() < end) {
+					String uri = random.nextInt(10) == 0 ? base + "?page=" + random.nextInt(100)
+							: base + "/" + (1 + random.nextInt(rows));
+					long start = System.nanoTime();
+					try {
+						HttpResponse<Void> response = http.send(HttpRequest.newBuilder(URI.create(uri)).build(),
+								HttpResponse.BodyHandlers.discarding());
+						if (response.statusCode() != 200) {
+							errors.increment();
+						}
+					} catch (IOException e) {
+						errors.increment();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+					latencies.recordValue(System.nanoTime() - start);
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		return new Result(latencies, errors.sum());
+	}
+
+	private static final class Result {
+
+		final Histogram latencies;
+		final long count;
+		final long errors;
+
+		Result(Histogram latencies, long errors) {
+			this.latencies = latencies;
+			this.count = latencies.getTotalCount();
+			this.errors = errors;
+		}
+
+		double percentile(double p) {
+			return latencies.getValueAtPercentile(p * 100) / 1_000_000.0;
+		}
+
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.iftm.client.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import com.iftm.client.entities.Client;
+import com.iftm.client.repositories.ClientRepository;
+
+/*
+ * ClientRepository.findByIncome (first page plus its DISTINCT count) at a range of
+ * selectivities, i.e. the fraction of rows with income >= threshold.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ClientRepositoryBenchmark {
+
+	@Param({ "0.001", "0.01", "0.1", "0.5" })
+	public double selectivity;
+
+	private ClientRepository repository;
+	private double income;
+	private PageRequest pageRequest;
+
+	@Setup(Level.Trial)
+	public void setUp(SeededDatabase database) {
+		repository = database.getBean(ClientRepository.class);
+		income = database.incomeForSelectivity(selectivity);
+		pageRequest = PageRequest.of(0, 12);
+	}
+
+	@Benchmark
+	public Page<Client> findByIncome() {
+		return repository.findByIncome(income, pageRequest);
+	}
+
+}
@@ -0,0 +1,54 @@
+package com.iftm.client.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort.Direction;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.services.ClientService;
+
+/*
+ * ClientService.findAllPaged ordered by name at increasing OFFSET depth, given as
+ * the fraction of the table skipped before the requested page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ClientServiceBenchmark {
+
+	private static final int LINES_PER_PAGE = 12;
+
+	@Param({ "0", "0.1", "0.5", "0.99" })
+	public double depth;
+
+	private ClientService service;
+	private PageRequest pageRequest;
+
+	@Setup(Level.Trial)
+	public void setUp(SeededDatabase database) {
+		service = database.getBean(ClientService.class);
+		int page = (int) (depth * database.rows / LINES_PER_PAGE);
+		pageRequest = PageRequest.of(page, LINES_PER_PAGE, Direction.ASC, "name");
+	}
+
+	@Benchmark
+	public Page<ClientDTO> findAllPaged() {
+		return service.findAllPaged(pageRequest);
+	}
+
+}
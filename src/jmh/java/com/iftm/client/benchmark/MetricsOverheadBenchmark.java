@@ -0,0 +1,70 @@
+package com.iftm.client.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort.Direction;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.services.ClientService;
+
+/*
+ * Cost of the client.service, client.repository and client.transaction timers on the
+ * two cheapest read paths: findById served from the L2 cache and the first page of
+ * findAllPaged. metrics=none drops MetricsConfig (client.metrics.enabled=false),
+ * leaving only the transaction proxies in place; timers keeps all three but publishes
+ * no histogram buckets; histograms is the shipped configuration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class MetricsOverheadBenchmark {
+
+	@Param({ "none", "timers", "histograms" })
+	public String metrics;
+
+	private ConfigurableApplicationContext context;
+	private ClientService service;
+	private PageRequest pageRequest;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkApplication.start("client.seed.rows=1000", "client.metrics.enabled=" + !metrics.equals("none"),
+				"management.metrics.distribution.percentiles-histogram.client=" + metrics.equals("histograms"));
+		service = context.getBean(ClientService.class);
+		pageRequest = PageRequest.of(0, 12, Direction.ASC, "name");
+		service.findById(1L);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public ClientDTO findById() {
+		return service.findById(1L);
+	}
+
+	@Benchmark
+	public Page<ClientDTO> findAllPaged() {
+		return service.findAllPaged(pageRequest);
+	}
+
+}
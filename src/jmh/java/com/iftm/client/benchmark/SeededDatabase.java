@@ -0,0 +1,52 @@
+package com.iftm.client.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/*
+ * Application context over an H2 database seeded with "rows" synthetic clients by
+ * ClientDataGenerator (override with -p rows=10000000). The query cache is off so
+ * every invocation reaches the database.
+ */
+@State(Scope.Benchmark)
+public class SeededDatabase {
+
+	@Param({ "10000" })
+	public int rows;
+
+	public ConfigurableApplicationContext context;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkApplication.start("client.seed.rows=" + rows,
+				"spring.jpa.properties.hibernate.cache.use_query_cache=false");
+		getBean(JdbcTemplate.class).execute("ANALYZE");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	public <T> T getBean(Class<T> type) {
+		return context.getBean(type);
+	}
+
+	/*
+	 * Income threshold such that the given fraction of clients has income >= threshold.
+	 */
+	public double incomeForSelectivity(double selectivity) {
+		JdbcTemplate jdbc = getBean(JdbcTemplate.class);
+		long count = jdbc.queryForObject("SELECT COUNT(*) FROM tb_client", Long.class);
+		long offset = Math.max(0, (long) (selectivity * count) - 1);
+		return jdbc.queryForObject("SELECT income FROM tb_client ORDER BY income DESC LIMIT 1 OFFSET ?",
+				Double.class, offset);
+	}
+
+}
@@ -0,0 +1,104 @@
+package com.iftm.client.benchmark;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.PageDTO;
+
+/*
+ * Encode and decode cost of a page of clients per wire format, configured as in
+ * WireFormatConfig. springPage is the Page<ClientDTO> the JSON endpoints send, leanPage
+ * the PageDTO envelope; payload sizes are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class WireFormatBenchmark {
+
+	private static final TypeReference<PageDTO<ClientDTO>> PAGE_TYPE = new TypeReference<PageDTO<ClientDTO>>() {
+	};
+
+	@Param({ "json", "cbor", "smile" })
+	public String format;
+
+	@Param({ "12", "100" })
+	public int pageSize;
+
+	private ObjectMapper mapper;
+	private Page<ClientDTO> springPage;
+	private PageDTO<ClientDTO> leanPage;
+	private byte[] leanPageBytes;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		List<ClientDTO> content = IntStream.range(0, pageSize)
+				.mapToObj(i -> new ClientDTO((long) i, "Client " + i, String.format("9%010d", i), 1000.0 + i,
+						Instant.parse("1980-01-01T00:00:00Z"), i % 4))
+				.collect(Collectors.toList());
+		springPage = new PageImpl<>(content, PageRequest.of(3, pageSize), 100000);
+		leanPage = PageDTO.of(springPage);
+		mapper = mapper(format);
+		leanPageBytes = mapper.writeValueAsBytes(leanPage);
+		System.out.printf("%nformat=%s pageSize=%d: Page %d bytes, PageDTO %d bytes%n", format, pageSize,
+				mapper.writeValueAsBytes(springPage).length, leanPageBytes.length);
+	}
+
+	@Benchmark
+	public byte[] encodeSpringPage() throws IOException {
+		return mapper.writeValueAsBytes(springPage);
+	}
+
+	@Benchmark
+	public byte[] encodeLeanPage() throws IOException {
+		return mapper.writeValueAsBytes(leanPage);
+	}
+
+	@Benchmark
+	public PageDTO<ClientDTO> decodeLeanPage() throws IOException {
+		return mapper.readValue(leanPageBytes, PAGE_TYPE);
+	}
+
+	private static ObjectMapper mapper(String format) {
+		Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+		if ("json".equals(format)) {
+			return builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+		}
+		builder.factory("cbor".equals(format) ? new CBORFactory() : new SmileFactory());
+		return builder.featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.featuresToDisable(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS,
+						DeserializationFeature.READ_DATE_TIMESTAMPS_AS_NANOSECONDS)
+				.build();
+	}
+
+}
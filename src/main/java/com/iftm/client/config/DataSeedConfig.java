@@ -0,0 +1,30 @@
+package com.iftm.client.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.iftm.client.services.ClientDataGenerator;
+
+/*
+ * Seeds synthetic clients at startup when client.seed.rows is set, e.g.
+ * --client.seed.rows=10000000 --client.seed.seed=7
+ */
+@Configuration
+public class DataSeedConfig {
+
+	@Bean
+	@ConditionalOnProperty(prefix = "client.seed", name = "rows")
+	public ApplicationRunner clientSeedRunner(ClientDataGenerator generator,
+			@Value("${client.seed.rows}") long rows,
+			@Value("${client.seed.seed:42}") long seed) {
+		return args -> {
+			if (rows > 0) {
+				generator.generate(rows, seed);
+			}
+		};
+	}
+
+}
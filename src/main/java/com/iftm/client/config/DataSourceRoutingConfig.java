@@ -0,0 +1,88 @@
+package com.iftm.client.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/*
+ * Read/write splitting, on once client.datasource.replicas[0].url is set. The primary
+ * pool is built from spring.datasource and sized by spring.datasource.hikari.*, each
+ * replica gets its own pool. JPA, Flyway and JdbcTemplate all use the routing proxy;
+ * only @Transactional(readOnly = true) work reaches the replicas, so migrations and
+ * writes always hit the primary.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "client.datasource", name = "replicas[0].url")
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+public class DataSourceRoutingConfig {
+
+	/*
+	 * The pools are deliberately not beans: Spring Boot's DataSource initializer runs
+	 * for every DataSource bean and would try to resolve this one while it is still
+	 * being created.
+	 */
+	// a bean of its own so ClientBatchLoader can ask it on the request thread
+	@Bean
+	public ReplicaLagGuard replicaLagGuard(ReplicaDataSourceProperties properties) {
+		return new ReplicaLagGuard(properties.getLagGuard());
+	}
+
+	@Bean
+	public DataSource dataSource(DataSourceProperties dataSourceProperties, ReplicaDataSourceProperties properties,
+			ReplicaLagGuard lagGuard, Environment environment) {
+		HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class)
+				.build();
+		Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+		primary.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+		List<DataSource> replicas = new ArrayList<>();
+		for (int i = 0; i < properties.getReplicas().size(); i++) {
+			replicas.add(replicaDataSource(ReplicaRoutingDataSource.REPLICA + i, properties.getReplicas().get(i)));
+		}
+		return new RoutingDataSourceProxy(
+				new ReplicaRoutingDataSource(primary, replicas, lagGuard));
+	}
+
+	private static HikariDataSource replicaDataSource(String name, ReplicaDataSourceProperties.Replica replica) {
+		HikariConfig config = new HikariConfig();
+		config.setPoolName(name);
+		config.setJdbcUrl(replica.getUrl());
+		config.setUsername(replica.getUsername());
+		config.setPassword(replica.getPassword());
+		config.setMaximumPoolSize(replica.getMaximumPoolSize());
+		config.setMinimumIdle(replica.getMinimumIdle() != null ? replica.getMinimumIdle() : replica.getMaximumPoolSize());
+		config.setReadOnly(true);
+		return new HikariDataSource(config);
+	}
+
+	// gives the bean a close() for Spring to call on shutdown
+	private static class RoutingDataSourceProxy extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+		private final ReplicaRoutingDataSource routingDataSource;
+
+		RoutingDataSourceProxy(ReplicaRoutingDataSource routingDataSource) {
+			super(routingDataSource);
+			this.routingDataSource = routingDataSource;
+		}
+
+		@Override
+		public void close() throws Exception {
+			routingDataSource.close();
+		}
+
+	}
+
+}
@@ -0,0 +1,100 @@
+package com.iftm.client.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/*
+ * Replaces Tomcat's request thread pool, so controller handlers and the ClientService
+ * JDBC calls they make run on:
+ *  - bounded: a fixed pool sized to the Hikari pool (client.execution.threads) with a
+ *    bounded queue (client.execution.queue-capacity). Threads never wait for a
+ *    connection, and Tomcat drops connections once the queue is full instead of
+ *    piling up blocked threads.
+ *  - virtual: one virtual thread per request. Needs a JDK with
+ *    Executors.newVirtualThreadPerTaskExecutor (21+), otherwise falls back to bounded.
+ * Leaving client.execution.mode unset keeps Tomcat's default pool.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "client.execution", name = "mode")
+public class ExecutionConfig {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ExecutionConfig.class);
+
+	/*
+	 * The pool stays inside the customizer rather than being an Executor bean: one of
+	 * those would switch off Boot's applicationTaskExecutor, and MVC async requests
+	 * (the StreamingResponseBody of /clients/export) would fall back to a new thread each.
+	 */
+	@Bean
+	public RequestExecutorCustomizer clientRequestExecutorCustomizer(@Value("${client.execution.mode}") String mode,
+			@Value("${client.execution.threads:${spring.datasource.hikari.maximum-pool-size:10}}") int threads,
+			@Value("${client.execution.queue-capacity:1000}") int queueCapacity) {
+		return new RequestExecutorCustomizer(requestExecutor(mode, threads, queueCapacity));
+	}
+
+	private static ExecutorService requestExecutor(String mode, int threads, int queueCapacity) {
+		if ("virtual".equals(mode)) {
+			ExecutorService executor = virtualThreadExecutor();
+			if (executor != null) {
+				LOG.info("Serving requests on virtual threads");
+				return executor;
+			}
+			LOG.warn("Virtual threads are not available on Java {}, using a bounded executor",
+					System.getProperty("java.version"));
+		} else if (!"bounded".equals(mode)) {
+			throw new IllegalStateException("Unknown client.execution.mode: " + mode);
+		}
+		LOG.info("Serving requests on {} threads, queue capacity {}", threads, queueCapacity);
+		return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+				new CustomizableThreadFactory("client-exec-"));
+	}
+
+	// looked up reflectively, the build targets Java 11
+	private static ExecutorService virtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	public static class RequestExecutorCustomizer
+			implements TomcatProtocolHandlerCustomizer<ProtocolHandler>, DisposableBean {
+
+		private final ExecutorService executor;
+
+		RequestExecutorCustomizer(ExecutorService executor) {
+			this.executor = executor;
+		}
+
+		@Override
+		public void customize(ProtocolHandler protocolHandler) {
+			protocolHandler.setExecutor(executor);
+		}
+
+		@Override
+		public void destroy() {
+			executor.shutdown();
+		}
+
+		public ExecutorService getExecutor() {
+			return executor;
+		}
+
+	}
+
+}
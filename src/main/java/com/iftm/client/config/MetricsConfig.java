@@ -0,0 +1,167 @@
+package com.iftm.client.config;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/*
+ * Timers for the client code paths, on top of what Boot already binds (Hikari pool,
+ * Hibernate statistics, HTTP requests):
+ *  - client.service: public ClientService methods
+ *  - client.repository: every ClientRepository call, query methods and custom fragment
+ *  - client.transaction: each transaction from begin to commit or rollback
+ * Histogram buckets are configured under management.metrics.distribution.*.client.
+ * Timers are looked up once per method (per transaction name) and reused, so a timed
+ * call costs two clock reads and a map lookup; client.metrics.enabled=false drops all
+ * three.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "client.metrics", name = "enabled", matchIfMissing = true)
+public class MetricsConfig {
+
+	@Bean
+	public ClientTimingAspect clientTimingAspect(MeterRegistry registry) {
+		return new ClientTimingAspect(registry);
+	}
+
+	// replaces Boot's JpaTransactionManager, customizers (spring.transaction.*) still apply
+	@Bean
+	public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory, MeterRegistry registry,
+			ObjectProvider<TransactionManagerCustomizers> customizers) {
+		TimedJpaTransactionManager transactionManager = new TimedJpaTransactionManager(registry);
+		transactionManager.setEntityManagerFactory(entityManagerFactory);
+		customizers.ifAvailable(x -> x.customize(transactionManager));
+		return transactionManager;
+	}
+
+	/*
+	 * Ordered ahead of the transaction interceptor so the commit is part of the service
+	 * time. Successful calls, the hot path, reuse a timer cached per method instead of
+	 * building its id and looking it up in the registry every time.
+	 */
+	@Aspect
+	@Order(Ordered.LOWEST_PRECEDENCE - 1)
+	public static class ClientTimingAspect {
+
+		private final MeterRegistry registry;
+		private final Map<Method, Timer> serviceTimers = new ConcurrentHashMap<>();
+		private final Map<Method, Timer> repositoryTimers = new ConcurrentHashMap<>();
+
+		public ClientTimingAspect(MeterRegistry registry) {
+			this.registry = registry;
+		}
+
+		@Around("execution(public * com.iftm.client.services.ClientService.*(..))")
+		public Object timeService(ProceedingJoinPoint pjp) throws Throwable {
+			return record(pjp, "client.service", serviceTimers);
+		}
+
+		@Around("execution(* com.iftm.client.repositories.ClientRepository+.*(..))")
+		public Object timeRepository(ProceedingJoinPoint pjp) throws Throwable {
+			return record(pjp, "client.repository", repositoryTimers);
+		}
+
+		private Object record(ProceedingJoinPoint pjp, String name, Map<Method, Timer> timers) throws Throwable {
+			Method method = ((MethodSignature) pjp.getSignature()).getMethod();
+			long start = registry.config().clock().monotonicTime();
+			Object result;
+			try {
+				result = pjp.proceed();
+			} catch (Throwable e) {
+				timer(name, method, e.getClass().getSimpleName()).record(elapsed(start), TimeUnit.NANOSECONDS);
+				throw e;
+			}
+			timers.computeIfAbsent(method, x -> timer(name, x, "none")).record(elapsed(start), TimeUnit.NANOSECONDS);
+			return result;
+		}
+
+		private long elapsed(long start) {
+			return registry.config().clock().monotonicTime() - start;
+		}
+
+		private Timer timer(String name, Method method, String exception) {
+			return Timer.builder(name).tag("method", method.getName()).tag("exception", exception).register(registry);
+		}
+
+	}
+
+	/*
+	 * Times every new transaction with a synchronization registered right after begin,
+	 * tagged with the transaction name (Class.method for @Transactional) and how it
+	 * ended. Committed timers are cached per name.
+	 */
+	public static class TimedJpaTransactionManager extends JpaTransactionManager {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient MeterRegistry registry;
+		private final transient Map<String, Timer> committedTimers = new ConcurrentHashMap<>();
+
+		public TimedJpaTransactionManager(MeterRegistry registry) {
+			this.registry = registry;
+		}
+
+		@Override
+		protected void prepareSynchronization(DefaultTransactionStatus status, TransactionDefinition definition) {
+			super.prepareSynchronization(status, definition);
+			if (status.isNewTransaction() && status.isNewSynchronization()) {
+				String name = definition.getName() != null ? definition.getName() : "unnamed";
+				TransactionSynchronizationManager.registerSynchronization(
+						new TransactionTimer(name, registry.config().clock().monotonicTime()));
+			}
+		}
+
+		private class TransactionTimer implements TransactionSynchronization {
+
+			private final String name;
+			private final long start;
+
+			TransactionTimer(String name, long start) {
+				this.name = name;
+				this.start = start;
+			}
+
+			@Override
+			public void afterCompletion(int status) {
+				long elapsed = registry.config().clock().monotonicTime() - start;
+				Timer timer = status == STATUS_COMMITTED ? committedTimers.computeIfAbsent(name, x -> timer(x, status))
+						: timer(name, status);
+				timer.record(elapsed, TimeUnit.NANOSECONDS);
+			}
+
+		}
+
+		private Timer timer(String name, int status) {
+			// com.iftm.client.services.ClientService.findById -> ClientService.findById
+			String method = name.substring(name.lastIndexOf('.', name.lastIndexOf('.') - 1) + 1);
+			String outcome = status == TransactionSynchronization.STATUS_COMMITTED ? "committed"
+					: status == TransactionSynchronization.STATUS_ROLLED_BACK ? "rolled_back" : "unknown";
+			return Timer.builder("client.transaction").tag("method", method).tag("outcome", outcome).register(registry);
+		}
+
+	}
+
+}
@@ -0,0 +1,87 @@
+package com.iftm.client.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/*
+ * client.datasource.replicas[n].url/username/password/maximum-pool-size/minimum-idle and
+ * client.datasource.lag-guard. The primary keeps using spring.datasource(.hikari).
+ */
+@ConfigurationProperties(prefix = "client.datasource")
+public class ReplicaDataSourceProperties {
+
+	private List<Replica> replicas = new ArrayList<>();
+
+	// how long a caller's reads stay on the primary after it committed a write
+	private Duration lagGuard = Duration.ofSeconds(5);
+
+	public List<Replica> getReplicas() {
+		return replicas;
+	}
+
+	public void setReplicas(List<Replica> replicas) {
+		this.replicas = replicas;
+	}
+
+	public Duration getLagGuard() {
+		return lagGuard;
+	}
+
+	public void setLagGuard(Duration lagGuard) {
+		this.lagGuard = lagGuard;
+	}
+
+	public static class Replica {
+
+		private String url;
+		private String username;
+		private String password;
+		private int maximumPoolSize = 10;
+		private Integer minimumIdle;
+
+		public String getUrl() {
+			return url;
+		}
+
+		public void setUrl(String url) {
+			this.url = url;
+		}
+
+		public String getUsername() {
+			return username;
+		}
+
+		public void setUsername(String username) {
+			this.username = username;
+		}
+
+		public String getPassword() {
+			return password;
+		}
+
+		public void setPassword(String password) {
+			this.password = password;
+		}
+
+		public int getMaximumPoolSize() {
+			return maximumPoolSize;
+		}
+
+		public void setMaximumPoolSize(int maximumPoolSize) {
+			this.maximumPoolSize = maximumPoolSize;
+		}
+
+		public Integer getMinimumIdle() {
+			return minimumIdle;
+		}
+
+		public void setMinimumIdle(Integer minimumIdle) {
+			this.minimumIdle = minimumIdle;
+		}
+
+	}
+
+}
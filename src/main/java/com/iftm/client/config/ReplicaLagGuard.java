@@ -0,0 +1,54 @@
+package com.iftm.client.config;
+
+import java.time.Duration;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/*
+ * Read-your-writes for replica routing: remembers the callers that committed a write in
+ * the last lag-guard interval so their reads can go to the primary until the replicas
+ * have caught up. A caller is the X-Caller-Id request header, else the remote address;
+ * work outside a request has no caller and is never guarded.
+ */
+public class ReplicaLagGuard {
+
+	public static final String CALLER_HEADER = "X-Caller-Id";
+
+	private static final int MAX_CALLERS = 100_000;
+
+	private final Cache<String, Boolean> recentWriters;
+
+	public ReplicaLagGuard(Duration lagGuard) {
+		recentWriters = Caffeine.newBuilder().maximumSize(MAX_CALLERS).expireAfterWrite(lagGuard).build();
+	}
+
+	public void recordWrite() {
+		String caller = currentCaller();
+		if (caller != null) {
+			recentWriters.put(caller, Boolean.TRUE);
+		}
+	}
+
+	public boolean recentlyWrote() {
+		String caller = currentCaller();
+		return caller != null && recentWriters.getIfPresent(caller) != null;
+	}
+
+	private static String currentCaller() {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (!(attributes instanceof ServletRequestAttributes)) {
+			return null;
+		}
+		HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+		String caller = request.getHeader(CALLER_HEADER);
+		return caller != null ? caller : request.getRemoteAddr();
+	}
+
+}
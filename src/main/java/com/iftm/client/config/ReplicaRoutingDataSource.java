@@ -0,0 +1,97 @@
+package com.iftm.client.config;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/*
+ * Sends connections of read-only transactions to the replicas (round robin) and
+ * everything else to the primary. Reads of a caller that wrote within the lag guard,
+ * and reads made through readFromPrimary, stay on the primary.
+ *
+ * The transaction's read-only flag is only set after the transaction manager has begun,
+ * so this has to sit behind a LazyConnectionDataSourceProxy, which defers the lookup to
+ * the first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+	public static final String PRIMARY = "primary";
+	public static final String REPLICA = "replica-";
+
+	private final DataSource primary;
+	private final List<DataSource> replicas;
+	private final ReplicaLagGuard lagGuard;
+	private final AtomicInteger next = new AtomicInteger();
+
+	private static final ThreadLocal<Boolean> PRIMARY_READS = new ThreadLocal<>();
+
+	public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, ReplicaLagGuard lagGuard) {
+		this.primary = primary;
+		this.replicas = replicas;
+		this.lagGuard = lagGuard;
+		Map<Object, Object> targets = new HashMap<>();
+		targets.put(PRIMARY, primary);
+		for (int i = 0; i < replicas.size(); i++) {
+			targets.put(REPLICA + i, replicas.get(i));
+		}
+		setTargetDataSources(targets);
+		setDefaultTargetDataSource(primary);
+		afterPropertiesSet();
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			if (TransactionSynchronizationManager.isSynchronizationActive()) {
+				TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+					@Override
+					public void afterCommit() {
+						lagGuard.recordWrite();
+					}
+				});
+			}
+			return PRIMARY;
+		}
+		if (replicas.isEmpty() || PRIMARY_READS.get() != null || lagGuard.recentlyWrote()) {
+			return PRIMARY;
+		}
+		return REPLICA + Math.floorMod(next.getAndIncrement(), replicas.size());
+	}
+
+	/*
+	 * Runs reads that cannot tolerate replica lag on the primary, still in a read-only
+	 * transaction. The connection is looked up at the first statement, so the statements
+	 * have to run inside reads.
+	 */
+	public static <T> T readFromPrimary(Supplier<T> reads) {
+		if (PRIMARY_READS.get() != null) {
+			return reads.get();
+		}
+		PRIMARY_READS.set(Boolean.TRUE);
+		try {
+			return reads.get();
+		} finally {
+			PRIMARY_READS.remove();
+		}
+	}
+
+	public void close() throws Exception {
+		for (DataSource replica : replicas) {
+			if (replica instanceof AutoCloseable) {
+				((AutoCloseable) replica).close();
+			}
+		}
+		if (primary instanceof AutoCloseable) {
+			((AutoCloseable) primary).close();
+		}
+	}
+
+}
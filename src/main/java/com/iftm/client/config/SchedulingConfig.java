@@ -0,0 +1,11 @@
+package com.iftm.client.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// background jobs, currently the change feed compaction in ClientChangeFeed
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+}
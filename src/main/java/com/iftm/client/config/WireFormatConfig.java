@@ -0,0 +1,86 @@
+package com.iftm.client.config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/*
+ * Binary alternatives to JSON for service-to-service calls, picked by the Accept
+ * header: application/cbor and application/x-jackson-smile. Same mapping as the JSON
+ * converter (spring.jackson.* applies) except that instants are epoch milliseconds
+ * rather than ISO strings, both ways. Pages are sent in the PageDTO envelope, see
+ * PageEnvelopeAdvice. JSON stays the default when Accept is missing or a wildcard.
+ */
+@Configuration
+public class WireFormatConfig {
+
+	public static final MediaType CBOR = MediaType.APPLICATION_CBOR;
+	public static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+	// JSON with the PageDTO / ColumnarPageDTO envelope for pages
+	public static final MediaType PAGE_JSON = new MediaType("application", "vnd.client.page+json");
+	public static final MediaType COLUMNS_JSON = new MediaType("application", "vnd.client.columns+json");
+
+	private static final List<MediaType> ALTERNATIVES = List.of(CBOR, SMILE, PAGE_JSON, COLUMNS_JSON);
+
+	@Bean
+	public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2CborHttpMessageConverter(binary(builder.factory(new CBORFactory())));
+	}
+
+	@Bean
+	public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2SmileHttpMessageConverter(binary(builder.factory(new SmileFactory())));
+	}
+
+	/*
+	 * The media type an Accept header selects among JSON and the types above, as the
+	 * converters pick it: the most specific, most preferred acceptable type. JSON for
+	 * wildcards, for a missing or unparsable header and when nothing else matches.
+	 */
+	public static MediaType representation(String accept) {
+		if (accept == null) {
+			return MediaType.APPLICATION_JSON;
+		}
+		List<MediaType> accepted;
+		try {
+			accepted = MediaType.parseMediaTypes(accept);
+		} catch (InvalidMediaTypeException e) {
+			return MediaType.APPLICATION_JSON;
+		}
+		MediaType.sortBySpecificityAndQuality(accepted);
+		for (MediaType type : accepted) {
+			if (type.isWildcardType() || type.isWildcardSubtype()) {
+				return MediaType.APPLICATION_JSON;
+			}
+			for (MediaType alternative : ALTERNATIVES) {
+				if (alternative.equalsTypeAndSubtype(type)) {
+					return alternative;
+				}
+			}
+			if (MediaType.APPLICATION_JSON.isCompatibleWith(type)) {
+				return MediaType.APPLICATION_JSON;
+			}
+		}
+		return MediaType.APPLICATION_JSON;
+	}
+
+	private static ObjectMapper binary(Jackson2ObjectMapperBuilder builder) {
+		return builder.featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.featuresToDisable(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS,
+						DeserializationFeature.READ_DATE_TIMESTAMPS_AS_NANOSECONDS)
+				.build();
+	}
+
+}
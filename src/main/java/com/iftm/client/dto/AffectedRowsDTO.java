@@ -0,0 +1,25 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+
+public class AffectedRowsDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Long affectedRows;
+
+	public AffectedRowsDTO() {
+	}
+
+	public AffectedRowsDTO(Long affectedRows) {
+		this.affectedRows = affectedRows;
+	}
+
+	public Long getAffectedRows() {
+		return affectedRows;
+	}
+
+	public void setAffectedRows(Long affectedRows) {
+		this.affectedRows = affectedRows;
+	}
+
+}
@@ -0,0 +1,76 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+
+public class CacheRegionStatsDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private String region;
+	private Long hitCount;
+	private Long missCount;
+	private Long putCount;
+	private Long evictionCount;
+	private Long size;
+
+	public CacheRegionStatsDTO() {
+	}
+
+	public CacheRegionStatsDTO(String region, Long hitCount, Long missCount, Long putCount, Long evictionCount,
+			Long size) {
+		this.region = region;
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.putCount = putCount;
+		this.evictionCount = evictionCount;
+		this.size = size;
+	}
+
+	public String getRegion() {
+		return region;
+	}
+
+	public void setRegion(String region) {
+		this.region = region;
+	}
+
+	public Long getHitCount() {
+		return hitCount;
+	}
+
+	public void setHitCount(Long hitCount) {
+		this.hitCount = hitCount;
+	}
+
+	public Long getMissCount() {
+		return missCount;
+	}
+
+	public void setMissCount(Long missCount) {
+		this.missCount = missCount;
+	}
+
+	public Long getPutCount() {
+		return putCount;
+	}
+
+	public void setPutCount(Long putCount) {
+		this.putCount = putCount;
+	}
+
+	public Long getEvictionCount() {
+		return evictionCount;
+	}
+
+	public void setEvictionCount(Long evictionCount) {
+		this.evictionCount = evictionCount;
+	}
+
+	public Long getSize() {
+		return size;
+	}
+
+	public void setSize(Long size) {
+		this.size = size;
+	}
+
+}
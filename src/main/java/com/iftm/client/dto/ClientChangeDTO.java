@@ -0,0 +1,82 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.iftm.client.entities.ClientChange;
+import com.iftm.client.entities.ClientChangeType;
+
+public class ClientChangeDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Long id;
+	private Long clientId;
+	private ClientChangeType type;
+	private Long version;
+	private Instant changedAt;
+	// stored as JSON already, written out as is
+	@JsonRawValue
+	private String client;
+
+	public ClientChangeDTO() {
+	}
+
+	public ClientChangeDTO(ClientChange entity) {
+		this.id = entity.getId();
+		this.clientId = entity.getClientId();
+		this.type = entity.getType();
+		this.version = entity.getClientVersion();
+		this.changedAt = entity.getCreatedAt();
+		this.client = entity.getPayload();
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Long getClientId() {
+		return clientId;
+	}
+
+	public void setClientId(Long clientId) {
+		this.clientId = clientId;
+	}
+
+	public ClientChangeType getType() {
+		return type;
+	}
+
+	public void setType(ClientChangeType type) {
+		this.type = type;
+	}
+
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	public Instant getChangedAt() {
+		return changedAt;
+	}
+
+	public void setChangedAt(Instant changedAt) {
+		this.changedAt = changedAt;
+	}
+
+	public String getClient() {
+		return client;
+	}
+
+	public void setClient(String client) {
+		this.client = client;
+	}
+
+}
@@ -3,6 +3,7 @@ package com.iftm.client.dto;
 import java.io.Serializable;
 import java.time.Instant;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.iftm.client.entities.Client;
 
 public class ClientDTO implements Serializable {
@@ -15,6 +16,12 @@ public class ClientDTO implements Serializable {
 	private Instant birthDate;
 	private Integer children;
 	
+	// sent as the ETag and Last-Modified headers rather than in the body
+	@JsonIgnore
+	private Long version;
+	@JsonIgnore
+	private Instant updatedAt;
+	
 	public ClientDTO() {
 	}
 
@@ -27,6 +34,12 @@ public class ClientDTO implements Serializable {
 		this.children = children;
 	}
 	
+	public ClientDTO(Long id, String name, String cpf, Double income, Instant birthDate, Integer children,
+			Long version) {
+		this(id, name, cpf, income, birthDate, children);
+		this.version = version;
+	}
+	
 	public ClientDTO(Client entity) {
 		this.id = entity.getId();
 		this.name = entity.getName();
@@ -34,6 +47,8 @@ public class ClientDTO implements Serializable {
 		this.income = entity.getIncome();
 		this.birthDate = entity.getBirthDate();
 		this.children = entity.getChildren();
+		this.version = entity.getVersion();
+		this.updatedAt = entity.getUpdatedAt();
 	}
 
 	public Long getId() {
@@ -84,6 +99,22 @@ public class ClientDTO implements Serializable {
 		this.children = children;
 	}
 	
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	public Instant getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(Instant updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+	
 	public Client toEntity() {
 		return new Client(id, name, cpf, income, birthDate, children);
 	}
@@ -0,0 +1,89 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/*
+ * Optional search criteria, bound from the query string of GET /clients/search.
+ * Null fields do not filter; ranges are inclusive.
+ */
+public class ClientFilterDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Double minIncome;
+	private Double maxIncome;
+	private String name;
+	private Instant minBirthDate;
+	private Instant maxBirthDate;
+	private Integer minChildren;
+	private Integer maxChildren;
+	private String cpf;
+
+	public ClientFilterDTO() {
+	}
+
+	public Double getMinIncome() {
+		return minIncome;
+	}
+
+	public void setMinIncome(Double minIncome) {
+		this.minIncome = minIncome;
+	}
+
+	public Double getMaxIncome() {
+		return maxIncome;
+	}
+
+	public void setMaxIncome(Double maxIncome) {
+		this.maxIncome = maxIncome;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public Instant getMinBirthDate() {
+		return minBirthDate;
+	}
+
+	public void setMinBirthDate(Instant minBirthDate) {
+		this.minBirthDate = minBirthDate;
+	}
+
+	public Instant getMaxBirthDate() {
+		return maxBirthDate;
+	}
+
+	public void setMaxBirthDate(Instant maxBirthDate) {
+		this.maxBirthDate = maxBirthDate;
+	}
+
+	public Integer getMinChildren() {
+		return minChildren;
+	}
+
+	public void setMinChildren(Integer minChildren) {
+		this.minChildren = minChildren;
+	}
+
+	public Integer getMaxChildren() {
+		return maxChildren;
+	}
+
+	public void setMaxChildren(Integer maxChildren) {
+		this.maxChildren = maxChildren;
+	}
+
+	public String getCpf() {
+		return cpf;
+	}
+
+	public void setCpf(String cpf) {
+		this.cpf = cpf;
+	}
+
+}
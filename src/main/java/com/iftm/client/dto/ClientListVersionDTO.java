@@ -0,0 +1,40 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/*
+ * Validators of a client listing: inserts and deletes change the count, every write
+ * moves the latest updatedAt, so the pair changes whenever the listing can.
+ */
+public class ClientListVersionDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Long count;
+	private Instant lastUpdatedAt;
+
+	public ClientListVersionDTO() {
+	}
+
+	public ClientListVersionDTO(Long count, Instant lastUpdatedAt) {
+		this.count = count;
+		this.lastUpdatedAt = lastUpdatedAt;
+	}
+
+	public Long getCount() {
+		return count;
+	}
+
+	public void setCount(Long count) {
+		this.count = count;
+	}
+
+	public Instant getLastUpdatedAt() {
+		return lastUpdatedAt;
+	}
+
+	public void setLastUpdatedAt(Instant lastUpdatedAt) {
+		this.lastUpdatedAt = lastUpdatedAt;
+	}
+
+}
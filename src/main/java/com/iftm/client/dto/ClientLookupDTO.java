@@ -0,0 +1,38 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ClientLookupDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	// in the order the ids were requested
+	private List<ClientDTO> content = new ArrayList<>();
+	private List<Long> missing = new ArrayList<>();
+
+	public ClientLookupDTO() {
+	}
+
+	public ClientLookupDTO(List<ClientDTO> content, List<Long> missing) {
+		this.content = content;
+		this.missing = missing;
+	}
+
+	public List<ClientDTO> getContent() {
+		return content;
+	}
+
+	public void setContent(List<ClientDTO> content) {
+		this.content = content;
+	}
+
+	public List<Long> getMissing() {
+		return missing;
+	}
+
+	public void setMissing(List<Long> missing) {
+		this.missing = missing;
+	}
+
+}
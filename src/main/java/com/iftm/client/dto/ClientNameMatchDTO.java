@@ -0,0 +1,45 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+
+public class ClientNameMatchDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Long id;
+	private String name;
+	private Double score;
+
+	public ClientNameMatchDTO() {
+	}
+
+	public ClientNameMatchDTO(Long id, String name, Double score) {
+		this.id = id;
+		this.name = name;
+		this.score = score;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public Double getScore() {
+		return score;
+	}
+
+	public void setScore(Double score) {
+		this.score = score;
+	}
+
+}
@@ -0,0 +1,39 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/*
+ * Validators of a single client (ETag and Last-Modified), read without loading the row.
+ */
+public class ClientVersionDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Long version;
+	private Instant updatedAt;
+
+	public ClientVersionDTO() {
+	}
+
+	public ClientVersionDTO(Long version, Instant updatedAt) {
+		this.version = version;
+		this.updatedAt = updatedAt;
+	}
+
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	public Instant getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(Instant updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+
+}
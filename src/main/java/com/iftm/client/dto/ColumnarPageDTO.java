@@ -0,0 +1,103 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/*
+ * PageDTO with the field names sent once: "columns" lists them and every element of
+ * "rows" is an array of values in that order. Elements are mapped with the given
+ * ObjectMapper, so @JsonIgnore and date formats apply as usual.
+ */
+@JsonInclude(Include.NON_NULL)
+public class ColumnarPageDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private List<String> columns = new ArrayList<>();
+	private List<List<JsonNode>> rows = new ArrayList<>();
+	private Integer page;
+	private Integer size;
+	private Long totalElements;
+	private Boolean hasNext;
+
+	public ColumnarPageDTO() {
+	}
+
+	public static ColumnarPageDTO of(Slice<?> slice, ObjectMapper objectMapper) {
+		ColumnarPageDTO result = new ColumnarPageDTO();
+		for (Object element : slice.getContent()) {
+			ObjectNode node = objectMapper.valueToTree(element);
+			if (result.columns.isEmpty()) {
+				node.fieldNames().forEachRemaining(result.columns::add);
+			}
+			List<JsonNode> row = new ArrayList<>(result.columns.size());
+			for (String column : result.columns) {
+				row.add(node.get(column));
+			}
+			result.rows.add(row);
+		}
+		result.page = slice.getNumber();
+		result.size = slice.getSize();
+		result.totalElements = slice instanceof Page ? ((Page<?>) slice).getTotalElements() : null;
+		result.hasNext = slice.hasNext();
+		return result;
+	}
+
+	public List<String> getColumns() {
+		return columns;
+	}
+
+	public void setColumns(List<String> columns) {
+		this.columns = columns;
+	}
+
+	public List<List<JsonNode>> getRows() {
+		return rows;
+	}
+
+	public void setRows(List<List<JsonNode>> rows) {
+		this.rows = rows;
+	}
+
+	public Integer getPage() {
+		return page;
+	}
+
+	public void setPage(Integer page) {
+		this.page = page;
+	}
+
+	public Integer getSize() {
+		return size;
+	}
+
+	public void setSize(Integer size) {
+		this.size = size;
+	}
+
+	public Long getTotalElements() {
+		return totalElements;
+	}
+
+	public void setTotalElements(Long totalElements) {
+		this.totalElements = totalElements;
+	}
+
+	public Boolean getHasNext() {
+		return hasNext;
+	}
+
+	public void setHasNext(Boolean hasNext) {
+		this.hasNext = hasNext;
+	}
+
+}
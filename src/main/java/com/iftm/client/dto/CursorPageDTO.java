@@ -0,0 +1,56 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+public class CursorPageDTO<T> implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private List<T> content;
+	private Integer size;
+	private Boolean hasNext;
+	private String nextCursor;
+
+	public CursorPageDTO() {
+	}
+
+	public CursorPageDTO(List<T> content, Integer size, Boolean hasNext, String nextCursor) {
+		this.content = content;
+		this.size = size;
+		this.hasNext = hasNext;
+		this.nextCursor = nextCursor;
+	}
+
+	public List<T> getContent() {
+		return content;
+	}
+
+	public void setContent(List<T> content) {
+		this.content = content;
+	}
+
+	public Integer getSize() {
+		return size;
+	}
+
+	public void setSize(Integer size) {
+		this.size = size;
+	}
+
+	public Boolean getHasNext() {
+		return hasNext;
+	}
+
+	public void setHasNext(Boolean hasNext) {
+		this.hasNext = hasNext;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+
+}
@@ -0,0 +1,49 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+
+/*
+ * Histogram bucket: incomes in [lowerBound, upperBound), the last bucket also includes
+ * its upper bound.
+ */
+public class IncomeBucketDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Double lowerBound;
+	private Double upperBound;
+	private Long count;
+
+	public IncomeBucketDTO() {
+	}
+
+	public IncomeBucketDTO(Double lowerBound, Double upperBound, Long count) {
+		this.lowerBound = lowerBound;
+		this.upperBound = upperBound;
+		this.count = count;
+	}
+
+	public Double getLowerBound() {
+		return lowerBound;
+	}
+
+	public void setLowerBound(Double lowerBound) {
+		this.lowerBound = lowerBound;
+	}
+
+	public Double getUpperBound() {
+		return upperBound;
+	}
+
+	public void setUpperBound(Double upperBound) {
+		this.upperBound = upperBound;
+	}
+
+	public Long getCount() {
+		return count;
+	}
+
+	public void setCount(Long count) {
+		this.count = count;
+	}
+
+}
@@ -0,0 +1,115 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Income distribution of all clients, or of the clients with a given number of children
+ * or birth decade (entries of groups). Percentiles are keyed "p50", "p99.9" and so on.
+ */
+public class IncomeStatsDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Integer children;
+	private Integer birthDecade;
+	private Long count;
+	private Double min;
+	private Double max;
+	private Double avg;
+	private Map<String, Double> percentiles = new LinkedHashMap<>();
+	private List<IncomeBucketDTO> histogram = new ArrayList<>();
+	private List<IncomeStatsDTO> groups = new ArrayList<>();
+
+	public IncomeStatsDTO() {
+	}
+
+	public IncomeStatsDTO(Integer children, Long count, Double min, Double max, Double avg) {
+		this.children = children;
+		this.count = count;
+		this.min = min;
+		this.max = max;
+		this.avg = avg;
+	}
+
+	public Integer getChildren() {
+		return children;
+	}
+
+	public void setChildren(Integer children) {
+		this.children = children;
+	}
+
+	public Integer getBirthDecade() {
+		return birthDecade;
+	}
+
+	public void setBirthDecade(Integer birthDecade) {
+		this.birthDecade = birthDecade;
+	}
+
+	public Long getCount() {
+		return count;
+	}
+
+	public void setCount(Long count) {
+		this.count = count;
+	}
+
+	public Double getMin() {
+		return min;
+	}
+
+	public void setMin(Double min) {
+		this.min = min;
+	}
+
+	public Double getMax() {
+		return max;
+	}
+
+	public void setMax(Double max) {
+		this.max = max;
+	}
+
+	public Double getAvg() {
+		return avg;
+	}
+
+	public void setAvg(Double avg) {
+		this.avg = avg;
+	}
+
+	public Map<String, Double> getPercentiles() {
+		return percentiles;
+	}
+
+	public void setPercentiles(Map<String, Double> percentiles) {
+		this.percentiles = percentiles;
+	}
+
+	public List<IncomeBucketDTO> getHistogram() {
+		return histogram;
+	}
+
+	public void setHistogram(List<IncomeBucketDTO> histogram) {
+		this.histogram = histogram;
+	}
+
+	public List<IncomeStatsDTO> getGroups() {
+		return groups;
+	}
+
+	public void setGroups(List<IncomeStatsDTO> groups) {
+		this.groups = groups;
+	}
+
+	// 0.5 -> "p50", 0.999 -> "p99.9"
+	public static String percentileKey(Double percentile) {
+		return "p" + BigDecimal.valueOf(percentile).movePointRight(2).stripTrailingZeros().toPlainString();
+	}
+
+}
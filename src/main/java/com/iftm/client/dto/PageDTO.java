@@ -0,0 +1,82 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+/*
+ * Page or Slice without Spring Data's Pageable/Sort metadata. totalElements is left
+ * out when the listing was not counted.
+ */
+@JsonInclude(Include.NON_NULL)
+public class PageDTO<T> implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private List<T> content;
+	private Integer page;
+	private Integer size;
+	private Long totalElements;
+	private Boolean hasNext;
+
+	public PageDTO() {
+	}
+
+	public PageDTO(List<T> content, Integer page, Integer size, Long totalElements, Boolean hasNext) {
+		this.content = content;
+		this.page = page;
+		this.size = size;
+		this.totalElements = totalElements;
+		this.hasNext = hasNext;
+	}
+
+	public static <T> PageDTO<T> of(Slice<T> slice) {
+		Long total = slice instanceof Page ? ((Page<T>) slice).getTotalElements() : null;
+		return new PageDTO<>(slice.getContent(), slice.getNumber(), slice.getSize(), total, slice.hasNext());
+	}
+
+	public List<T> getContent() {
+		return content;
+	}
+
+	public void setContent(List<T> content) {
+		this.content = content;
+	}
+
+	public Integer getPage() {
+		return page;
+	}
+
+	public void setPage(Integer page) {
+		this.page = page;
+	}
+
+	public Integer getSize() {
+		return size;
+	}
+
+	public void setSize(Integer size) {
+		this.size = size;
+	}
+
+	public Long getTotalElements() {
+		return totalElements;
+	}
+
+	public void setTotalElements(Long totalElements) {
+		this.totalElements = totalElements;
+	}
+
+	public Boolean getHasNext() {
+		return hasNext;
+	}
+
+	public void setHasNext(Boolean hasNext) {
+		this.hasNext = hasNext;
+	}
+
+}
@@ -3,19 +3,35 @@ package com.iftm.client.entities;
 import java.io.Serializable;
 import java.time.Instant;
 
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
 
 @Entity
 @Table(name = "tb_client")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Client.CACHE_REGION)
+@DynamicUpdate
 public class Client implements Serializable {
 	private static final long serialVersionUID = 1L;
 	
+	public static final String CACHE_REGION = "client";
+	public static final String QUERY_CACHE_REGION = "client-queries";
+	
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "client_seq")
+	@SequenceGenerator(name = "client_seq", sequenceName = "seq_client", allocationSize = 50)
 	private Long id;
 	private String name;
 	private String cpf;
@@ -23,6 +39,16 @@ public class Client implements Serializable {
 	private Instant birthDate;
 	private Integer children;
 	
+	// computed by the database (UPPER(name)) so case-insensitive lookups can use an index
+	@Column(insertable = false, updatable = false)
+	private String nameUpper;
+	
+	@Version
+	private Long version;
+	
+	@UpdateTimestamp
+	private Instant updatedAt;
+	
 	public Client() {
 	}
 
@@ -83,6 +109,14 @@ public class Client implements Serializable {
 		this.children = children;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public Instant getUpdatedAt() {
+		return updatedAt;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -0,0 +1,97 @@
+package com.iftm.client.entities;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+
+/*
+ * Outbox row of the change feed, written in the transaction of the change it records.
+ * payload is the client as JSON after the change (null for DELETE and RESYNC).
+ * allocationSize 1: every id comes straight from the sequence when the row is written,
+ * see ClientChangeFeed for why the feed depends on it.
+ */
+@Entity
+@Table(name = "tb_client_change")
+public class ClientChange implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "client_change_seq")
+	@SequenceGenerator(name = "client_change_seq", sequenceName = "seq_client_change", allocationSize = 1)
+	private Long id;
+	private Long clientId;
+	@Enumerated(EnumType.STRING)
+	private ClientChangeType type;
+	private Long clientVersion;
+	private String payload;
+	private Instant createdAt;
+
+	public ClientChange() {
+	}
+
+	public ClientChange(Long clientId, ClientChangeType type, Long clientVersion, String payload, Instant createdAt) {
+		this.clientId = clientId;
+		this.type = type;
+		this.clientVersion = clientVersion;
+		this.payload = payload;
+		this.createdAt = createdAt;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public Long getClientId() {
+		return clientId;
+	}
+
+	public ClientChangeType getType() {
+		return type;
+	}
+
+	public Long getClientVersion() {
+		return clientVersion;
+	}
+
+	public String getPayload() {
+		return payload;
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((id == null) ? 0 : id.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		ClientChange other = (ClientChange) obj;
+		if (id == null) {
+			if (other.id != null)
+				return false;
+		} else if (!id.equals(other.id))
+			return false;
+		return true;
+	}
+
+}
@@ -0,0 +1,11 @@
+package com.iftm.client.entities;
+
+public enum ClientChangeType {
+
+	INSERT,
+	UPDATE,
+	DELETE,
+	// a bulk statement changed rows it did not report one by one: reload everything
+	RESYNC
+
+}
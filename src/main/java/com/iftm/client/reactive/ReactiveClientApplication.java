@@ -0,0 +1,31 @@
+package com.iftm.client.reactive;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+/*
+ * The Client API on WebFlux and R2DBC, run on its own next to DsclientApplication:
+ * reactive.properties instead of application.properties, Netty instead of Tomcat and
+ * no JDBC DataSource. Flyway still migrates the schema through its own JDBC connection
+ * (spring.flyway.url). Caches, change feed and in-memory indexes of the servlet stack
+ * are not part of it.
+ */
+@SpringBootApplication(exclude = { DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class })
+public class ReactiveClientApplication {
+
+	public static final String CONFIG_NAME = "reactive";
+
+	public static void main(String[] args) {
+		builder().run(args);
+	}
+
+	public static SpringApplicationBuilder builder() {
+		return new SpringApplicationBuilder(ReactiveClientApplication.class)
+				.web(WebApplicationType.REACTIVE)
+				.properties("spring.config.name=" + CONFIG_NAME);
+	}
+
+}
@@ -0,0 +1,136 @@
+package com.iftm.client.reactive;
+
+import java.net.URI;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.services.ExportFormat;
+import com.iftm.client.services.exceptions.InvalidRequestException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/*
+ * Request handling for the routes in ReactiveClientRouter, with the parameters and
+ * defaults of ClientResource. Parameters are parsed inside the returned Mono: the
+ * router's onError handlers only see errors signalled by it, an exception thrown by
+ * the handler itself would end up as a 500.
+ */
+@Component
+public class ReactiveClientHandler {
+
+	public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+	@Autowired
+	private ReactiveClientService service;
+
+	public Mono<ServerResponse> findAll(ServerRequest request) {
+		return Mono.fromSupplier(() -> pageRequest(request))
+				.flatMap(pageRequest -> acceptsNdjson(request)
+						? stream(service.count(null), service.findAll(pageRequest))
+						: ServerResponse.ok().body(service.findAllPaged(pageRequest), Page.class));
+	}
+
+	public Mono<ServerResponse> findByIncome(ServerRequest request) {
+		return Mono.justOrEmpty(request.queryParam("income"))
+				.switchIfEmpty(Mono.error(() -> new InvalidRequestException("income is required")))
+				.map(income -> parse("income", income, Double::valueOf))
+				.flatMap(income -> {
+					PageRequest pageRequest = pageRequest(request);
+					return acceptsNdjson(request)
+							? stream(service.count(income), service.findAllByIncome(income, pageRequest))
+							: ServerResponse.ok().body(service.findByIncome(income, pageRequest), Page.class);
+				});
+	}
+
+	public Mono<ServerResponse> findById(ServerRequest request) {
+		return Mono.fromSupplier(() -> id(request))
+				.flatMap(service::findById)
+				.flatMap(dto -> ServerResponse.ok().bodyValue(dto));
+	}
+
+	/*
+	 * NDJSON only: each client is encoded and flushed as the database hands it over, and
+	 * the query is only asked for more rows as Netty drains the socket.
+	 */
+	public Mono<ServerResponse> export(ServerRequest request) {
+		String format = request.queryParam("format").orElse("ndjson");
+		if (!ExportFormat.NDJSON.getExtension().equalsIgnoreCase(format)) {
+			return Mono.error(new InvalidRequestException("Unsupported export format " + format));
+		}
+		return ServerResponse.ok()
+				.contentType(ExportFormat.NDJSON.getMediaType())
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=clients." + ExportFormat.NDJSON.getExtension())
+				.body(service.export(), ClientDTO.class);
+	}
+
+	public Mono<ServerResponse> insert(ServerRequest request) {
+		return request.bodyToMono(ClientDTO.class)
+				.flatMap(service::insert)
+				.flatMap(dto -> ServerResponse.created(URI.create(request.path() + "/" + dto.getId())).bodyValue(dto));
+	}
+
+	public Mono<ServerResponse> update(ServerRequest request) {
+		return Mono.fromSupplier(() -> id(request))
+				.flatMap(id -> request.bodyToMono(ClientDTO.class).flatMap(dto -> service.update(id, dto)))
+				.flatMap(dto -> ServerResponse.ok().bodyValue(dto));
+	}
+
+	public Mono<ServerResponse> delete(ServerRequest request) {
+		return Mono.fromSupplier(() -> id(request))
+				.flatMap(service::delete)
+				.then(ServerResponse.noContent().build());
+	}
+
+	/*
+	 * Accept: application/x-ndjson gets the page as one client per line, each written as
+	 * the database returns it, instead of a Page object collected first. The total is
+	 * counted up front and sent in X-Total-Count.
+	 */
+	private static Mono<ServerResponse> stream(Mono<Long> total, Flux<ClientDTO> content) {
+		return total.flatMap(count -> ServerResponse.ok()
+				.contentType(ExportFormat.NDJSON.getMediaType())
+				.header(TOTAL_COUNT_HEADER, Long.toString(count))
+				.body(content, ClientDTO.class));
+	}
+
+	// only an explicit NDJSON Accept, */* keeps the Page
+	private static boolean acceptsNdjson(ServerRequest request) {
+		return request.headers().accept().stream()
+				.anyMatch(x -> x.equalsTypeAndSubtype(ExportFormat.NDJSON.getMediaType()));
+	}
+
+	private static Long id(ServerRequest request) {
+		return parse("id", request.pathVariable("id"), Long::valueOf);
+	}
+
+	private static PageRequest pageRequest(ServerRequest request) {
+		int page = parse("page", request.queryParam("page").orElse("0"), Integer::valueOf);
+		int linesPerPage = parse("linesPerPage", request.queryParam("linesPerPage").orElse("12"), Integer::valueOf);
+		Direction direction = parse("direction", request.queryParam("direction").orElse("ASC"), Direction::fromString);
+		String orderBy = request.queryParam("orderBy").orElse("name");
+		if (page < 0 || linesPerPage < 1) {
+			throw new InvalidRequestException("page must be at least 0 and linesPerPage at least 1");
+		}
+		return PageRequest.of(page, linesPerPage, direction, orderBy);
+	}
+
+	// NumberFormatException, and the IllegalArgumentException of Direction.fromString
+	private static <T> T parse(String name, String value, Function<String, T> parser) {
+		try {
+			return parser.apply(value);
+		} catch (IllegalArgumentException e) {
+			throw new InvalidRequestException("Invalid " + name + ": " + value);
+		}
+	}
+
+}
@@ -0,0 +1,25 @@
+package com.iftm.client.reactive;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveSortingRepository;
+import org.springframework.stereotype.Repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveClientRepository extends ReactiveSortingRepository<ClientRecord, Long> {
+
+	Flux<ClientRecord> findAllBy(Pageable pageable);
+
+	Flux<ClientRecord> findByIncomeGreaterThanEqual(Double income, Pageable pageable);
+
+	Mono<Long> countByIncomeGreaterThanEqual(Double income);
+
+	Flux<ClientRecord> findAllByOrderById();
+
+	@Query("SELECT NEXT VALUE FOR seq_client")
+	Mono<Long> nextId();
+
+}
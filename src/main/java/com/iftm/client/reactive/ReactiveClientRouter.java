@@ -0,0 +1,60 @@
+package com.iftm.client.reactive;
+
+import java.time.Instant;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.iftm.client.resources.exceptions.StandardError;
+import com.iftm.client.services.exceptions.DatabaseException;
+import com.iftm.client.services.exceptions.InvalidRequestException;
+import com.iftm.client.services.exceptions.ResourceNotFoundException;
+import com.iftm.client.services.exceptions.VersionConflictException;
+
+import reactor.core.publisher.Mono;
+
+/*
+ * /clients on WebFlux. Errors get the same statuses and StandardError bodies as
+ * ResourceExceptionHandler gives them on the servlet stack.
+ */
+@Configuration
+public class ReactiveClientRouter {
+
+	@Bean
+	public RouterFunction<ServerResponse> clientRoutes(ReactiveClientHandler handler) {
+		return RouterFunctions.route()
+				.path("/clients", builder -> builder
+						.GET("/find-by-income", handler::findByIncome)
+						.GET("/export", handler::export)
+						.GET("/{id}", handler::findById)
+						.PUT("/{id}", handler::update)
+						.DELETE("/{id}", handler::delete)
+						.GET("", handler::findAll)
+						.POST("", handler::insert))
+				.onError(ResourceNotFoundException.class,
+						(e, request) -> error(HttpStatus.NOT_FOUND, "Resource not found", e, request))
+				.onError(DatabaseException.class,
+						(e, request) -> error(HttpStatus.BAD_REQUEST, "Database exception", e, request))
+				.onError(InvalidRequestException.class,
+						(e, request) -> error(HttpStatus.BAD_REQUEST, "Invalid request", e, request))
+				.onError(VersionConflictException.class,
+						(e, request) -> error(HttpStatus.PRECONDITION_FAILED, "Version conflict", e, request))
+				.build();
+	}
+
+	private static Mono<ServerResponse> error(HttpStatus status, String error, Throwable e, ServerRequest request) {
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(status.value());
+		err.setError(error);
+		err.setMessage(e.getMessage());
+		err.setPath(request.path());
+		return ServerResponse.status(status).bodyValue(err);
+	}
+
+}
@@ -0,0 +1,134 @@
+package com.iftm.client.reactive;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.services.exceptions.DatabaseException;
+import com.iftm.client.services.exceptions.ResourceNotFoundException;
+import com.iftm.client.services.exceptions.VersionConflictException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class ReactiveClientService {
+
+	private static final ZoneId ZONE = ZoneId.systemDefault();
+
+	@Autowired
+	private ReactiveClientRepository repository;
+
+	@Autowired
+	private R2dbcEntityTemplate template;
+
+	@Transactional(readOnly = true)
+	public Mono<Page<ClientDTO>> findAllPaged(PageRequest pageRequest) {
+		return page(findAll(pageRequest), count(null), pageRequest);
+	}
+
+	@Transactional(readOnly = true)
+	public Mono<Page<ClientDTO>> findByIncome(Double income, PageRequest pageRequest) {
+		return page(findAllByIncome(income, pageRequest), count(income), pageRequest);
+	}
+
+	// the rows of one page as the query returns them, for callers that write them as they come
+	@Transactional(readOnly = true)
+	public Flux<ClientDTO> findAll(PageRequest pageRequest) {
+		return repository.findAllBy(pageRequest).map(ReactiveClientService::toDto);
+	}
+
+	@Transactional(readOnly = true)
+	public Flux<ClientDTO> findAllByIncome(Double income, PageRequest pageRequest) {
+		return repository.findByIncomeGreaterThanEqual(income, pageRequest).map(ReactiveClientService::toDto);
+	}
+
+	// income == null counts the unfiltered listing
+	@Transactional(readOnly = true)
+	public Mono<Long> count(Double income) {
+		return income == null ? repository.count() : repository.countByIncomeGreaterThanEqual(income);
+	}
+
+	// rows are fetched as the subscriber requests them, so a slow consumer slows the query down
+	// instead of filling memory
+	public Flux<ClientDTO> export() {
+		return repository.findAllByOrderById().map(ReactiveClientService::toDto);
+	}
+
+	@Transactional(readOnly = true)
+	public Mono<ClientDTO> findById(Long id) {
+		return repository.findById(id)
+				.switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Entity not found")))
+				.map(ReactiveClientService::toDto);
+	}
+
+	@Transactional
+	public Mono<ClientDTO> insert(ClientDTO dto) {
+		return repository.nextId().flatMap(id -> {
+			ClientRecord record = new ClientRecord();
+			record.setId(id);
+			updateData(record, dto);
+			// insert, not save: save would take the assigned id for an existing row
+			return template.insert(record);
+		}).map(ReactiveClientService::toDto)
+				.onErrorMap(DataIntegrityViolationException.class, e -> new DatabaseException("Integrity violation"));
+	}
+
+	@Transactional
+	public Mono<ClientDTO> update(Long id, ClientDTO dto) {
+		return repository.findById(id)
+				.switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Id not found " + id)))
+				.flatMap(record -> {
+					updateData(record, dto);
+					return repository.save(record);
+				}).map(ReactiveClientService::toDto)
+				.onErrorMap(OptimisticLockingFailureException.class,
+						e -> new VersionConflictException("Client " + id + " was modified concurrently"))
+				.onErrorMap(DataIntegrityViolationException.class, e -> new DatabaseException("Integrity violation"));
+	}
+
+	@Transactional
+	public Mono<Void> delete(Long id) {
+		return repository.findById(id)
+				.switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Id not found " + id)))
+				.flatMap(repository::delete)
+				.onErrorMap(OptimisticLockingFailureException.class,
+						e -> new VersionConflictException("Client " + id + " was modified concurrently"))
+				.onErrorMap(DataIntegrityViolationException.class, e -> new DatabaseException("Integrity violation"));
+	}
+
+	/*
+	 * A Page is a single JSON object whose totals come with the content, so the rows of
+	 * one page (linesPerPage at most) are collected before it is written. NDJSON requests
+	 * skip it and stream findAll/findAllByIncome instead.
+	 */
+	private static Mono<Page<ClientDTO>> page(Flux<ClientDTO> content, Mono<Long> total, PageRequest pageRequest) {
+		return Mono.zip(content.collectList(), total).map(t -> new PageImpl<>(t.getT1(), pageRequest, t.getT2()));
+	}
+
+	private static void updateData(ClientRecord record, ClientDTO dto) {
+		record.setName(dto.getName());
+		record.setCpf(dto.getCpf());
+		record.setIncome(dto.getIncome());
+		record.setBirthDate(dto.getBirthDate() == null ? null : LocalDateTime.ofInstant(dto.getBirthDate(), ZONE));
+		record.setChildren(dto.getChildren());
+		record.setUpdatedAt(LocalDateTime.now(ZONE));
+	}
+
+	private static ClientDTO toDto(ClientRecord record) {
+		return new ClientDTO(record.getId(), record.getName(), record.getCpf(), record.getIncome(),
+				record.getBirthDate() == null ? null : record.getBirthDate().atZone(ZONE).toInstant(),
+				record.getChildren(), record.getVersion());
+	}
+
+}
@@ -0,0 +1,36 @@
+package com.iftm.client.repositories;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.iftm.client.entities.ClientChange;
+
+@Repository
+public interface ClientChangeRepository extends JpaRepository<ClientChange, Long> {
+
+	/*
+	 * Ends before the lowest id created at or after the horizon: createdAt is taken before
+	 * the id, so a higher id can be older than a lower one and must not be passed ahead
+	 * of it.
+	 */
+	@Query("SELECT obj FROM ClientChange obj WHERE obj.id > :since AND obj.id < ALL (SELECT young.id FROM "
+			+ "ClientChange young WHERE young.id > :since AND young.createdAt >= :horizon) ORDER BY obj.id")
+	List<ClientChange> findAfter(Long since, Instant horizon, Pageable pageable);
+
+	@Modifying
+	@Query("DELETE FROM ClientChange obj WHERE obj.createdAt < :before")
+	int deleteOlderThan(Instant before);
+
+	// keeps the latest change of every client, DELETE tombstones included
+	@Modifying
+	@Query("DELETE FROM ClientChange obj WHERE obj.createdAt < :before AND obj.clientId IS NOT NULL AND EXISTS "
+			+ "(SELECT 1 FROM ClientChange later WHERE later.clientId = obj.clientId AND later.id > obj.id)")
+	int deleteSupersededOlderThan(Instant before);
+
+}
@@ -1,29 +1,111 @@
 package com.iftm.client.repositories;
 
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.ClientListVersionDTO;
+import com.iftm.client.dto.ClientVersionDTO;
 import com.iftm.client.entities.Client;
 
 @Repository
-public interface ClientRepository extends JpaRepository<Client, Long> {
+public interface ClientRepository
+		extends JpaRepository<Client, Long>, JpaSpecificationExecutor<Client>, ClientRepositoryCustom {
+
+	// constructor expression: rows go straight into DTOs, nothing enters the persistence context
+	String DTO = "SELECT new com.iftm.client.dto.ClientDTO(obj.id, obj.name, obj.cpf, obj.income, obj.birthDate, "
+			+ "obj.children) FROM Client obj";
 
+	@QueryHints({ @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = Client.QUERY_CACHE_REGION) })
 	@Query("SELECT DISTINCT obj FROM Client obj WHERE " + "obj.income >= :income")
 	Page<Client> findByIncome(Double income, Pageable pageable);
 
-	@Query("SELECT obj FROM Client obj WHERE UPPER(obj.name) = UPPER(?1)")
+	@QueryHints({ @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = Client.QUERY_CACHE_REGION) })
+	@Query("SELECT obj FROM Client obj WHERE obj.nameUpper = UPPER(?1)")
 	List<Client> findByFirstnameIgnoreCase(String name);
 
 	/*@Query("SELECT obj FROM Client obj WHERE obj.birthday > ?1")
 	List<Client> findByBirthDateStartDateAfter(Instant specific_date);*/
 
-	@Query("SELECT obj FROM Client obj WHERE obj.children != 0")
+	@Query("SELECT obj FROM Client obj WHERE obj.children > 0")
 	List<Client> findByChildrenNotLike0(int children);
+
+	@Query(value = DTO, countQuery = "SELECT COUNT(obj) FROM Client obj")
+	Page<ClientDTO> findAllProjected(Pageable pageable);
+
+	@Query(DTO)
+	List<ClientDTO> findAllProjected();
+
+	// Slice variants read one extra row to set hasNext and never issue the count query
+	@QueryHints({ @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = Client.QUERY_CACHE_REGION) })
+	@Query(DTO)
+	Slice<ClientDTO> findAllSliced(Pageable pageable);
+
+	@QueryHints({ @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = Client.QUERY_CACHE_REGION) })
+	@Query(DTO + " WHERE obj.income >= :income")
+	Slice<ClientDTO> findByIncomeSliced(Double income, Pageable pageable);
+
+	long countByIncomeGreaterThanEqual(Double income);
+
+	@Query("SELECT new com.iftm.client.dto.ClientVersionDTO(obj.version, obj.updatedAt) FROM Client obj"
+			+ " WHERE obj.id = :id")
+	Optional<ClientVersionDTO> findVersionById(Long id);
+
+	@Query("SELECT new com.iftm.client.dto.ClientListVersionDTO(COUNT(obj), MAX(obj.updatedAt)) FROM Client obj")
+	ClientListVersionDTO findListVersion();
+
+	@Query("SELECT new com.iftm.client.dto.ClientListVersionDTO(COUNT(obj), MAX(obj.updatedAt)) FROM Client obj"
+			+ " WHERE obj.income >= :income")
+	ClientListVersionDTO findListVersionByIncome(Double income);
+
+	// with versions, so in-memory views rebuilt from it can tell which later changes it already saw
+	@QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+	@Query("SELECT new com.iftm.client.dto.ClientDTO(obj.id, obj.name, obj.cpf, obj.income, obj.birthDate, "
+			+ "obj.children, obj.version) FROM Client obj ORDER BY obj.id")
+	Stream<ClientDTO> streamAll();
+
+	// the rows a bulk delete by id is about to remove, locked so their state is the one deleted
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT obj FROM Client obj WHERE obj.id IN :ids")
+	List<Client> findAllByIdForUpdate(Collection<Long> ids);
+
+	/*
+	 * Bulk statements: one DELETE/UPDATE each, nothing is loaded. Pending changes are
+	 * flushed first and the persistence context is cleared afterwards so it never holds
+	 * rows the statement removed or changed. Each returns the number of affected rows.
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("DELETE FROM Client obj WHERE obj.id IN :ids")
+	int deleteByIdIn(Collection<Long> ids);
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("DELETE FROM Client obj WHERE obj.income BETWEEN :minIncome AND :maxIncome")
+	int deleteByIncomeBetween(Double minIncome, Double maxIncome);
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Client obj SET obj.income = obj.income * :factor, obj.version = obj.version + 1,"
+			+ " obj.updatedAt = CURRENT_TIMESTAMP WHERE obj.income BETWEEN :minIncome AND :maxIncome")
+	int adjustIncomeBetween(Double factor, Double minIncome, Double maxIncome);
 	
 }
@@ -0,0 +1,50 @@
+package com.iftm.client.repositories;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Sort.Direction;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.IncomeStatsDTO;
+import com.iftm.client.entities.Client;
+
+public interface ClientRepositoryCustom {
+
+	/*
+	 * Keyset (seek) page: returns up to "limit" clients, projected to DTOs, positioned strictly after the
+	 * (lastValue, lastId) pair in (orderBy, id) order. A null lastId starts from the
+	 * beginning. Income filter is optional (null means no filter).
+	 */
+	List<ClientDTO> findAfter(Double income, String orderBy, Direction direction, Object lastValue, Long lastId,
+			int limit);
+
+	/*
+	 * The clients with the given ids, in the same order, with null for unknown ids. Ids
+	 * found in the second-level cache are served from it, the rest are loaded with IN
+	 * queries of at most batchSize ids each.
+	 */
+	List<Client> findAllByIdInOrder(List<Long> ids, int batchSize);
+
+	/*
+	 * Single UPDATE of the non-null fields of "changes" that also bumps the version.
+	 * With a non-null version the row only matches while it is still at that version.
+	 * Returns the number of rows updated (0 when the id is unknown or the version is stale).
+	 */
+	int patch(Long id, Long version, ClientDTO changes);
+
+	/*
+	 * Count, min, max, avg and the given percentiles (fractions in [0, 1], continuous) of
+	 * income, aggregated by the database over the whole table (one row) or per children
+	 * value (one row each, ordered by children). Histograms are left empty.
+	 */
+	List<IncomeStatsDTO> incomeStats(List<Double> percentiles, boolean byChildren);
+
+	/*
+	 * Row counts of "buckets" income ranges of the given width starting at min; anything
+	 * past the last range is counted in it. Keyed by children value, or by null when not
+	 * grouped.
+	 */
+	Map<Integer, long[]> incomeHistogram(double min, double width, int buckets, boolean byChildren);
+
+}
@@ -0,0 +1,206 @@
+package com.iftm.client.repositories;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.data.domain.Sort.Direction;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.IncomeStatsDTO;
+import com.iftm.client.entities.Client;
+
+public class ClientRepositoryCustomImpl implements ClientRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager em;
+
+	/*
+	 * Every page starts from an index range: the seek predicate leads with sortKey >= value
+	 * (ASC) or <= value (DESC) on (sortKey, id), or, inside the NULL run, with sortKey IS
+	 * NULL and the id bound. H2 orders NULLs low, so they come first ascending and last
+	 * descending; a page that reaches the end of one run is topped up from the other
+	 * with a second query. DESC walks the descending indexes of V10, H2 does not scan an
+	 * ascending index backwards.
+	 */
+	@Override
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public List<ClientDTO> findAfter(Double income, String orderBy, Direction direction, Object lastValue, Long lastId,
+			int limit) {
+		boolean asc = direction.isAscending();
+		if (lastId == null) {
+			return select(income, orderBy, asc, limit, (cb, obj) -> null);
+		}
+		if ("id".equals(orderBy)) {
+			return select(income, orderBy, asc, limit, (cb, obj) -> afterId(cb, obj, lastId, asc));
+		}
+		List<ClientDTO> rows;
+		if (lastValue == null) {
+			rows = select(income, orderBy, asc, limit,
+					(cb, obj) -> cb.and(cb.isNull(obj.get(orderBy)), afterId(cb, obj, lastId, asc)));
+		} else {
+			Comparable value = (Comparable) lastValue;
+			rows = select(income, orderBy, asc, limit, (cb, obj) -> {
+				Path<Comparable> sortKey = obj.get(orderBy);
+				Predicate bound = asc ? cb.greaterThanOrEqualTo(sortKey, value) : cb.lessThanOrEqualTo(sortKey, value);
+				Predicate after = cb.or(asc ? cb.greaterThan(sortKey, value) : cb.lessThan(sortKey, value),
+						cb.and(cb.equal(sortKey, value), afterId(cb, obj, lastId, asc)));
+				return cb.and(bound, after);
+			});
+		}
+		// the NULL run follows the values descending, the values follow it ascending
+		if (rows.size() == limit || asc != (lastValue == null)) {
+			return rows;
+		}
+		List<ClientDTO> result = new ArrayList<>(rows);
+		result.addAll(select(income, orderBy, asc, limit - rows.size(),
+				(cb, obj) -> asc ? cb.isNotNull(obj.get(orderBy)) : cb.isNull(obj.get(orderBy))));
+		return result;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private List<ClientDTO> select(Double income, String orderBy, boolean asc, int limit,
+			BiFunction<CriteriaBuilder, Root<Client>, Predicate> seek) {
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<ClientDTO> query = cb.createQuery(ClientDTO.class);
+		Root<Client> obj = query.from(Client.class);
+
+		Path<Long> id = obj.get("id");
+		Path<Comparable> sortKey = obj.get(orderBy);
+
+		List<Predicate> predicates = new ArrayList<>();
+		if (income != null) {
+			predicates.add(cb.greaterThanOrEqualTo(obj.get("income"), income));
+		}
+		Predicate position = seek.apply(cb, obj);
+		if (position != null) {
+			predicates.add(position);
+		}
+
+		query.select(cb.construct(ClientDTO.class, id, obj.get("name"), obj.get("cpf"), obj.get("income"),
+				obj.get("birthDate"), obj.get("children"))).where(predicates.toArray(new Predicate[0]));
+		if ("id".equals(orderBy)) {
+			query.orderBy(asc ? cb.asc(id) : cb.desc(id));
+		} else {
+			query.orderBy(asc ? cb.asc(sortKey) : cb.desc(sortKey), asc ? cb.asc(id) : cb.desc(id));
+		}
+		return em.createQuery(query).setMaxResults(limit).getResultList();
+	}
+
+	private static Predicate afterId(CriteriaBuilder cb, Root<Client> obj, Long lastId, boolean asc) {
+		Path<Long> id = obj.get("id");
+		return asc ? cb.greaterThan(id, lastId) : cb.lessThan(id, lastId);
+	}
+
+	@Override
+	public List<Client> findAllByIdInOrder(List<Long> ids, int batchSize) {
+		// without a cache mode multiLoad goes past the second-level cache to the database
+		return em.unwrap(Session.class).byMultipleIds(Client.class).with(CacheMode.NORMAL).withBatchSize(batchSize)
+				.multiLoad(ids);
+	}
+
+	@Override
+	public int patch(Long id, Long version, ClientDTO changes) {
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaUpdate<Client> update = cb.createCriteriaUpdate(Client.class);
+		Root<Client> obj = update.from(Client.class);
+
+		if (changes.getName() != null) {
+			update.set(obj.<String>get("name"), changes.getName());
+		}
+		if (changes.getCpf() != null) {
+			update.set(obj.<String>get("cpf"), changes.getCpf());
+		}
+		if (changes.getIncome() != null) {
+			update.set(obj.<Double>get("income"), changes.getIncome());
+		}
+		if (changes.getBirthDate() != null) {
+			update.set(obj.<Instant>get("birthDate"), changes.getBirthDate());
+		}
+		if (changes.getChildren() != null) {
+			update.set(obj.<Integer>get("children"), changes.getChildren());
+		}
+		Path<Long> currentVersion = obj.get("version");
+		update.set(currentVersion, cb.sum(currentVersion, 1L));
+		update.set(obj.<Instant>get("updatedAt"), Instant.now());
+
+		Predicate where = cb.equal(obj.get("id"), id);
+		if (version != null) {
+			where = cb.and(where, cb.equal(currentVersion, version));
+		}
+		int updated = em.createQuery(update.where(where)).executeUpdate();
+		// the UPDATE bypassed the persistence context: drop this client from it, and nothing
+		// else the caller holds (getReference returns the managed instance, or a proxy)
+		em.detach(em.getReference(Client.class, id));
+		return updated;
+	}
+
+	// native SQL: JPQL has neither PERCENTILE_CONT ... WITHIN GROUP nor FLOOR
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<IncomeStatsDTO> incomeStats(List<Double> percentiles, boolean byChildren) {
+		StringBuilder sql = new StringBuilder("SELECT ");
+		sql.append(byChildren ? "children" : "CAST(NULL AS INT)");
+		sql.append(", COUNT(income), MIN(income), MAX(income), AVG(income)");
+		for (Double percentile : percentiles) {
+			// a literal: the fraction has to be constant within the group
+			sql.append(", PERCENTILE_CONT(").append(percentile.doubleValue()).append(") WITHIN GROUP (ORDER BY income)");
+		}
+		sql.append(" FROM tb_client");
+		if (byChildren) {
+			sql.append(" GROUP BY children ORDER BY children");
+		}
+		List<Object[]> rows = em.createNativeQuery(sql.toString()).getResultList();
+		List<IncomeStatsDTO> result = new ArrayList<>(rows.size());
+		for (Object[] row : rows) {
+			IncomeStatsDTO stats = new IncomeStatsDTO(row[0] == null ? null : ((Number) row[0]).intValue(),
+					((Number) row[1]).longValue(), toDouble(row[2]), toDouble(row[3]), toDouble(row[4]));
+			for (int i = 0; i < percentiles.size(); i++) {
+				stats.getPercentiles().put(IncomeStatsDTO.percentileKey(percentiles.get(i)), toDouble(row[5 + i]));
+			}
+			result.add(stats);
+		}
+		return result;
+	}
+
+	/*
+	 * min and width come from an earlier statement; rows inserted since can fall outside
+	 * [min, min + buckets * width] and are counted in the first or last bucket.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public Map<Integer, long[]> incomeHistogram(double min, double width, int buckets, boolean byChildren) {
+		String group = byChildren ? "children" : "CAST(NULL AS INT)";
+		String sql = "SELECT " + group + ", bucket, COUNT(*) FROM (SELECT children,"
+				+ " GREATEST(LEAST(CAST(FLOOR((income - :min) / :width) AS INT), :lastBucket), 0) AS bucket"
+				+ " FROM tb_client WHERE income IS NOT NULL) t GROUP BY " + (byChildren ? "children, " : "") + "bucket";
+		List<Object[]> rows = em.createNativeQuery(sql).setParameter("min", min).setParameter("width", width)
+				.setParameter("lastBucket", buckets - 1).getResultList();
+		Map<Integer, long[]> result = new LinkedHashMap<>();
+		for (Object[] row : rows) {
+			Integer key = row[0] == null ? null : ((Number) row[0]).intValue();
+			result.computeIfAbsent(key, x -> new long[buckets])[((Number) row[1]).intValue()] = ((Number) row[2])
+					.longValue();
+		}
+		return result;
+	}
+
+	private static Double toDouble(Object value) {
+		return value == null ? null : ((Number) value).doubleValue();
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.iftm.client.repositories;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.iftm.client.dto.ClientFilterDTO;
+import com.iftm.client.entities.Client;
+
+/*
+ * Search predicates, each written against an indexed column (see the Flyway
+ * migrations): income, name_upper (prefix LIKE), birth_date, children and cpf. Null
+ * arguments yield no predicate, so any combination compiles into one WHERE clause.
+ * Nothing joins, so no DISTINCT is needed.
+ */
+public final class ClientSpecifications {
+
+	private static final char LIKE_ESCAPE = '\\';
+
+	private ClientSpecifications() {
+	}
+
+	public static Specification<Client> matching(ClientFilterDTO filter) {
+		return Specification.where(incomeBetween(filter.getMinIncome(), filter.getMaxIncome()))
+				.and(nameStartsWith(filter.getName()))
+				.and(birthDateBetween(filter.getMinBirthDate(), filter.getMaxBirthDate()))
+				.and(childrenBetween(filter.getMinChildren(), filter.getMaxChildren()))
+				.and(cpfEquals(filter.getCpf()));
+	}
+
+	public static Specification<Client> incomeBetween(Double min, Double max) {
+		return between("income", min, max);
+	}
+
+	// name_upper holds UPPER(name), so the prefix match can use idx_client_name_upper
+	public static Specification<Client> nameStartsWith(String prefix) {
+		if (prefix == null || prefix.isBlank()) {
+			return null;
+		}
+		String pattern = escapeLike(prefix.trim().toUpperCase()) + "%";
+		return (root, query, cb) -> cb.like(root.get("nameUpper"), pattern, LIKE_ESCAPE);
+	}
+
+	public static Specification<Client> birthDateBetween(Instant min, Instant max) {
+		return between("birthDate", min, max);
+	}
+
+	public static Specification<Client> childrenBetween(Integer min, Integer max) {
+		return between("children", min, max);
+	}
+
+	public static Specification<Client> cpfEquals(String cpf) {
+		if (cpf == null || cpf.isBlank()) {
+			return null;
+		}
+		return (root, query, cb) -> cb.equal(root.get("cpf"), cpf.trim());
+	}
+
+	private static <T extends Comparable<? super T>> Specification<Client> between(String attribute, T min, T max) {
+		if (min == null && max == null) {
+			return null;
+		}
+		return (root, query, cb) -> {
+			if (min == null) {
+				return cb.lessThanOrEqualTo(root.get(attribute), max);
+			}
+			if (max == null) {
+				return cb.greaterThanOrEqualTo(root.get(attribute), min);
+			}
+			return cb.between(root.get(attribute), min, max);
+		};
+	}
+
+	private static String escapeLike(String value) {
+		return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+
+}
@@ -0,0 +1,27 @@
+package com.iftm.client.resources;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.iftm.client.dto.CacheRegionStatsDTO;
+import com.iftm.client.services.CacheStatsService;
+
+@RestController
+@RequestMapping(value = "/cache")
+public class CacheResource {
+
+	@Autowired
+	private CacheStatsService service;
+
+	@GetMapping(value = "/stats")
+	public ResponseEntity<List<CacheRegionStatsDTO>> findAll() {
+		List<CacheRegionStatsDTO> list = service.findAll();
+		return ResponseEntity.ok().body(list);
+	}
+
+}
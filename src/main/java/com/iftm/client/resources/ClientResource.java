@@ -6,67 +6,280 @@ import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort.Direction;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.ResponseEntity.BodyBuilder;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.iftm.client.config.WireFormatConfig;
+import com.iftm.client.dto.AffectedRowsDTO;
+import com.iftm.client.dto.ClientChangeDTO;
 import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.ClientFilterDTO;
+import com.iftm.client.dto.ClientListVersionDTO;
+import com.iftm.client.dto.ClientLookupDTO;
+import com.iftm.client.dto.ClientNameMatchDTO;
+import com.iftm.client.dto.ClientVersionDTO;
+import com.iftm.client.dto.CursorPageDTO;
+import com.iftm.client.dto.IncomeStatsDTO;
+import com.iftm.client.services.ClientBatchLoader;
 import com.iftm.client.services.ClientService;
+import com.iftm.client.services.CountMode;
+import com.iftm.client.services.ExportFormat;
+import com.iftm.client.services.exceptions.InvalidRequestException;
 
 @RestController
 @RequestMapping(value = "/clients")
 public class ClientResource {
 	
+	// stored by the caller but revalidated with the ETag / Last-Modified on every use
+	private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+	
 	@Autowired
 	private ClientService service;
+	
+	@Autowired
+	private ClientBatchLoader batchLoader;
 
+	/*
+	 * count=exact (default) includes totalElements from a COUNT query, count=none skips
+	 * it and returns a Slice with hasNext only, count=approx fills the totals from a
+	 * periodically refreshed counter.
+	 * With count=exact the COUNT also reads MAX(updatedAt), so every response carries the
+	 * list validator; the other modes only run that query for a conditional request.
+	 */
 	@GetMapping
-	public ResponseEntity<Page<ClientDTO>> findAll(
+	public ResponseEntity<Slice<ClientDTO>> findAll(
 			@RequestParam(value = "page", defaultValue = "0") Integer page,
 			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
 			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
-			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy) 
+			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy,
+			@RequestParam(value = "count", defaultValue = "exact") String count,
+			ServletWebRequest request) 
 	{
+		CountMode countMode = CountMode.of(count);
+		String representation = representation(request);
 		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy);
-		Page<ClientDTO> list = service.findAllPaged(pageRequest);
-		return ResponseEntity.ok().body(list);
+		Slice<ClientDTO> list;
+		if (countMode == CountMode.EXACT) {
+			ClientListVersionDTO version = service.findListVersion(null);
+			if (notModified(request, version, representation)) {
+				return null;
+			}
+			list = service.findAllPaged(pageRequest, version.getCount());
+		} else {
+			if (isConditional(request) && notModified(request, service.findListVersion(null), representation)) {
+				return null;
+			}
+			list = service.findAllPaged(pageRequest, countMode);
+		}
+		return ResponseEntity.ok().cacheControl(CACHE_CONTROL).body(list);
+	}
+	
+	/*
+	 * GET /clients?ids=1,2,3 and POST /clients/lookup (a JSON array of ids, for lists too
+	 * long for a URL) return the clients found in request order plus the ids not found.
+	 */
+	@GetMapping(params = "ids")
+	public ResponseEntity<ClientLookupDTO> findAllById(@RequestParam(value = "ids") List<Long> ids) {
+		ClientLookupDTO result = service.findAllById(ids);
+		return ResponseEntity.ok().body(result);
+	}
+	
+	@PostMapping(value = "/lookup")
+	public ResponseEntity<ClientLookupDTO> lookup(@RequestBody List<Long> ids) {
+		ClientLookupDTO result = service.findAllById(ids);
+		return ResponseEntity.ok().body(result);
 	}
 	
 	@GetMapping(value = "/find-by-income")
-	public ResponseEntity<Page<ClientDTO>>findByIncome(
+	public ResponseEntity<Slice<ClientDTO>>findByIncome(
 			@RequestParam(value = "income" ,defaultValue = "" )Double income, 
+			@RequestParam(value = "page", defaultValue = "0") Integer page,
+			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy,
+			@RequestParam(value = "count", defaultValue = "exact") String count,
+			ServletWebRequest request) 
+	{
+		CountMode countMode = CountMode.of(count);
+		String representation = representation(request);
+		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy);
+		Slice<ClientDTO> list;
+		if (countMode == CountMode.EXACT) {
+			ClientListVersionDTO version = service.findListVersion(income);
+			if (notModified(request, version, representation)) {
+				return null;
+			}
+			list = service.findByIncome(income, pageRequest, version.getCount());
+		} else {
+			if (isConditional(request) && notModified(request, service.findListVersion(income), representation)) {
+				return null;
+			}
+			list = service.findByIncome(income, pageRequest, countMode);
+		}
+		return ResponseEntity.ok().cacheControl(CACHE_CONTROL).body(list);
+		
+	}
+	
+	/*
+	 * Any combination of minIncome/maxIncome, name (prefix, case-insensitive),
+	 * minBirthDate/maxBirthDate (ISO-8601 instants), minChildren/maxChildren and cpf.
+	 */
+	@GetMapping(value = "/search")
+	public ResponseEntity<Page<ClientDTO>> search(ClientFilterDTO filter,
 			@RequestParam(value = "page", defaultValue = "0") Integer page,
 			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
 			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
 			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy) 
 	{
 		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy);
-		Page<ClientDTO> list = service.findByIncome(income, pageRequest);
+		Page<ClientDTO> list = service.search(filter, pageRequest);
+		return ResponseEntity.ok().body(list);
+	}
+	
+	// accent- and case-insensitive; every word of q must start a word of the name
+	@GetMapping(value = "/search/name")
+	public ResponseEntity<List<ClientNameMatchDTO>> searchByName(
+			@RequestParam(value = "q") String q,
+			@RequestParam(value = "limit", defaultValue = "20") Integer limit) 
+	{
+		List<ClientNameMatchDTO> list = service.searchByName(q, limit);
+		return ResponseEntity.ok().body(list);
+	}
+	
+	/*
+	 * percentiles: comma-separated fractions; buckets: number of equal-width histogram
+	 * buckets between the minimum and maximum income; groupBy=children adds one entry
+	 * per number of children.
+	 */
+	@GetMapping(value = "/stats/income")
+	public ResponseEntity<IncomeStatsDTO> incomeStats(
+			@RequestParam(value = "percentiles", defaultValue = "0.5,0.9,0.99") List<Double> percentiles,
+			@RequestParam(value = "buckets", defaultValue = "10") Integer buckets,
+			@RequestParam(value = "groupBy", required = false) String groupBy) 
+	{
+		if (groupBy != null && !groupBy.equals("children")) {
+			throw new InvalidRequestException("groupBy only supports children");
+		}
+		IncomeStatsDTO stats = service.incomeStats(percentiles, buckets, groupBy != null);
+		return ResponseEntity.ok().body(stats);
+	}
+	
+	// maintained in memory: constant cost, approximate percentiles; groupBy=children or birthDecade
+	@GetMapping(value = "/stats/income/live")
+	public ResponseEntity<IncomeStatsDTO> liveIncomeStats(
+			@RequestParam(value = "percentiles", defaultValue = "0.5,0.9,0.99") List<Double> percentiles,
+			@RequestParam(value = "groupBy", required = false) String groupBy) 
+	{
+		if (groupBy != null && !groupBy.equals("children") && !groupBy.equals("birthDecade")) {
+			throw new InvalidRequestException("groupBy only supports children and birthDecade");
+		}
+		IncomeStatsDTO stats = service.liveIncomeStats(percentiles, groupBy);
+		return ResponseEntity.ok().body(stats);
+	}
+	
+	/*
+	 * Change feed: inserts, updates and deletes in order after the "since" cursor.
+	 * Poll again with nextCursor; hasNext says whether more are waiting right now.
+	 */
+	@GetMapping(value = "/changes")
+	public ResponseEntity<CursorPageDTO<ClientChangeDTO>> findChanges(
+			@RequestParam(value = "since", required = false) String since,
+			@RequestParam(value = "limit", defaultValue = "500") Integer limit) 
+	{
+		CursorPageDTO<ClientChangeDTO> changes = service.findChanges(since, limit);
+		return ResponseEntity.ok().body(changes);
+	}
+	
+	@GetMapping(value = "/seek")
+	public ResponseEntity<CursorPageDTO<ClientDTO>> findAllSeek(
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy) 
+	{
+		CursorPageDTO<ClientDTO> list = service.findAllSeek(cursor, linesPerPage, Direction.valueOf(direction), orderBy);
+		return ResponseEntity.ok().body(list);
+	}
+	
+	@GetMapping(value = "/find-by-income/seek")
+	public ResponseEntity<CursorPageDTO<ClientDTO>> findByIncomeSeek(
+			@RequestParam(value = "income", defaultValue = "") Double income, 
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy) 
+	{
+		CursorPageDTO<ClientDTO> list = service.findByIncomeSeek(income, cursor, linesPerPage,
+				Direction.valueOf(direction), orderBy);
 		return ResponseEntity.ok().body(list);
-		
 	}
 	
 	
+	/*
+	 * Conditional requests are answered from a version-only query: a matching
+	 * If-None-Match (or an If-Modified-Since not older than updatedAt) gets an empty 304.
+	 */
 	@GetMapping(value = "/{id}")
-	public ResponseEntity<ClientDTO> findById(@PathVariable Long id) {
-		ClientDTO dto = service.findById(id);
-		return ResponseEntity.ok().body(dto);
+	public ResponseEntity<ClientDTO> findById(@PathVariable Long id, ServletWebRequest request) {
+		String representation = representation(request);
+		if (isConditional(request)) {
+			ClientVersionDTO version = service.findVersion(id);
+			if (request.checkNotModified(eTag(version.getVersion(), representation),
+					version.getUpdatedAt().toEpochMilli())) {
+				return null;
+			}
+		}
+		ClientDTO dto = batchLoader.isEnabled() ? batchLoader.load(id) : service.findById(id);
+		BodyBuilder response = ResponseEntity.ok().cacheControl(CACHE_CONTROL);
+		if (dto.getVersion() != null) {
+			response.eTag(eTag(dto.getVersion(), representation));
+		}
+		if (dto.getUpdatedAt() != null) {
+			response.lastModified(dto.getUpdatedAt());
+		}
+		return response.body(dto);
 	}
+	/*
+	 * Materializes the whole table in memory; prefer /clients/export.
+	 */
+	@Deprecated
 	@GetMapping(value = "/findAll")
 	public ResponseEntity<List<ClientDTO>>findAll(){
 		List<ClientDTO> list = service.findAll();
 		return ResponseEntity.ok().body(list);
 	}
 	
+	@GetMapping(value = "/export")
+	public ResponseEntity<StreamingResponseBody> export(
+			@RequestParam(value = "format", defaultValue = "ndjson") String format) 
+	{
+		ExportFormat exportFormat = ExportFormat.of(format);
+		StreamingResponseBody body = out -> service.export(exportFormat, out);
+		return ResponseEntity.ok()
+				.contentType(exportFormat.getMediaType())
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=clients." + exportFormat.getExtension())
+				.body(body);
+	}
+	
 	@PostMapping
 	public ResponseEntity<ClientDTO> insert(@RequestBody ClientDTO dto) {
 		dto = service.insert(dto);
@@ -75,15 +288,109 @@ public class ClientResource {
 		return ResponseEntity.created(uri).body(dto);
 	}
 	
+	@PostMapping(value = "/batch")
+	public ResponseEntity<List<ClientDTO>> insertAll(@RequestBody List<ClientDTO> dtos) {
+		List<ClientDTO> list = service.insertAll(dtos);
+		return ResponseEntity.ok().body(list);
+	}
+	
+	@PostMapping(value = "/batch/delete")
+	public ResponseEntity<AffectedRowsDTO> deleteAll(@RequestBody List<Long> ids) {
+		long deleted = service.deleteAll(ids);
+		return ResponseEntity.ok().body(new AffectedRowsDTO(deleted));
+	}
+	
+	@DeleteMapping(value = "/by-income")
+	public ResponseEntity<AffectedRowsDTO> deleteByIncome(
+			@RequestParam(value = "minIncome", required = false) Double minIncome,
+			@RequestParam(value = "maxIncome", required = false) Double maxIncome)
+	{
+		long deleted = service.deleteByIncome(minIncome, maxIncome);
+		return ResponseEntity.ok().body(new AffectedRowsDTO(deleted));
+	}
+	
+	@PatchMapping(value = "/by-income")
+	public ResponseEntity<AffectedRowsDTO> adjustIncome(
+			@RequestParam(value = "factor") Double factor,
+			@RequestParam(value = "minIncome", required = false) Double minIncome,
+			@RequestParam(value = "maxIncome", required = false) Double maxIncome)
+	{
+		long updated = service.adjustIncome(factor, minIncome, maxIncome);
+		return ResponseEntity.ok().body(new AffectedRowsDTO(updated));
+	}
+	
 	@PutMapping(value = "/{id}")
 	public ResponseEntity<ClientDTO> update(@PathVariable Long id, @RequestBody ClientDTO dto) {
 		dto = service.update(id, dto);
 		return ResponseEntity.ok().body(dto);
 	}
 	
+	/*
+	 * Only the fields present in the body are written. If-Match with the ETag from a
+	 * previous GET makes the update conditional (412 when the client changed since).
+	 */
+	@PatchMapping(value = "/{id}")
+	public ResponseEntity<Void> patch(@PathVariable Long id, @RequestBody ClientDTO dto,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+			ServletWebRequest request) {
+		long version = service.patch(id, parseIfMatch(ifMatch), dto);
+		return ResponseEntity.noContent().eTag(eTag(version, representation(request))).build();
+	}
+	
 	@DeleteMapping(value = "/{id}")
 	public ResponseEntity<ClientDTO> delete(@PathVariable Long id) {
 		service.delete(id);
 		return ResponseEntity.noContent().build();
 	}
+	
+	private static String eTag(long version, String representation) {
+		return "\"" + version + representation + "\"";
+	}
+	
+	/*
+	 * ETag suffix of the representation Accept selects: none for JSON, "-" and the
+	 * subtype for the WireFormatConfig types, whose bytes differ for the same version.
+	 * Caches are told to key on Accept too.
+	 */
+	private static String representation(ServletWebRequest request) {
+		request.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+		MediaType type = WireFormatConfig.representation(request.getHeader(HttpHeaders.ACCEPT));
+		return type.equals(MediaType.APPLICATION_JSON) ? "" : "-" + type.getSubtype();
+	}
+	
+	private static boolean isConditional(ServletWebRequest request) {
+		return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+				|| request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+	}
+	
+	// weak: the validator identifies the state of the whole table (or income range), not the page bytes
+	private static boolean notModified(ServletWebRequest request, ClientListVersionDTO version,
+			String representation) {
+		if (version.getLastUpdatedAt() == null) {
+			return request.checkNotModified("W/\"0" + representation + "\"");
+		}
+		long lastModified = version.getLastUpdatedAt().toEpochMilli();
+		return request.checkNotModified(
+				"W/\"" + version.getCount() + "-" + lastModified + representation + "\"", lastModified);
+	}
+	
+	// "*" or a missing header means any version; the ETag of any representation matches
+	private static Long parseIfMatch(String ifMatch) {
+		if (ifMatch == null || ifMatch.trim().equals("*")) {
+			return null;
+		}
+		String value = ifMatch.trim();
+		if (value.length() < 2 || !value.startsWith("\"") || !value.endsWith("\"")) {
+			throw new InvalidRequestException("Invalid If-Match header");
+		}
+		value = value.substring(1, value.length() - 1);
+		if (value.indexOf('-') > 0) {
+			value = value.substring(0, value.indexOf('-'));
+		}
+		try {
+			return Long.valueOf(value);
+		} catch (NumberFormatException e) {
+			throw new InvalidRequestException("Invalid If-Match header");
+		}
+	}
 }
@@ -0,0 +1,57 @@
+package com.iftm.client.resources;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iftm.client.config.WireFormatConfig;
+import com.iftm.client.dto.ColumnarPageDTO;
+import com.iftm.client.dto.PageDTO;
+
+/*
+ * Rewrites Page/Slice bodies into PageDTO for the binary media types and
+ * application/vnd.client.page+json, and into ColumnarPageDTO for
+ * application/vnd.client.columns+json. Plain JSON responses keep Spring Data's layout,
+ * which existing callers depend on.
+ */
+@ControllerAdvice
+public class PageEnvelopeAdvice implements ResponseBodyAdvice<Object> {
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Override
+	public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+		return true;
+	}
+
+	@Override
+	public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+			Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+			ServerHttpResponse response) {
+		if (!(body instanceof Slice)) {
+			return body;
+		}
+		if (WireFormatConfig.COLUMNS_JSON.isCompatibleWith(selectedContentType)) {
+			return ColumnarPageDTO.of((Slice<?>) body, objectMapper);
+		}
+		if (isLean(selectedContentType)) {
+			return PageDTO.of((Slice<?>) body);
+		}
+		return body;
+	}
+
+	private static boolean isLean(MediaType contentType) {
+		return WireFormatConfig.PAGE_JSON.isCompatibleWith(contentType)
+				|| WireFormatConfig.CBOR.isCompatibleWith(contentType)
+				|| WireFormatConfig.SMILE.isCompatibleWith(contentType);
+	}
+
+}
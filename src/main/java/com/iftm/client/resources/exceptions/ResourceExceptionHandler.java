@@ -10,7 +10,9 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import com.iftm.client.services.exceptions.DatabaseException;
+import com.iftm.client.services.exceptions.InvalidRequestException;
 import com.iftm.client.services.exceptions.ResourceNotFoundException;
+import com.iftm.client.services.exceptions.VersionConflictException;
 
 @ControllerAdvice
 public class ResourceExceptionHandler {
@@ -36,5 +38,27 @@ public class ResourceExceptionHandler {
 		err.setPath(request.getRequestURI());
 		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(err);
 	}
+	
+	@ExceptionHandler(InvalidRequestException.class)
+	public ResponseEntity<StandardError> invalidRequest(InvalidRequestException e, HttpServletRequest request) {
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(HttpStatus.BAD_REQUEST.value());
+		err.setError("Invalid request");
+		err.setMessage(e.getMessage());
+		err.setPath(request.getRequestURI());
+		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(err);
+	}
+	
+	@ExceptionHandler(VersionConflictException.class)
+	public ResponseEntity<StandardError> versionConflict(VersionConflictException e, HttpServletRequest request) {
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(HttpStatus.PRECONDITION_FAILED.value());
+		err.setError("Version conflict");
+		err.setMessage(e.getMessage());
+		err.setPath(request.getRequestURI());
+		return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(err);
+	}
 
 }
@@ -0,0 +1,51 @@
+package com.iftm.client.services;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/*
+ * Runs the full rebuild of an in-memory view on a thread of its own, so the bulk
+ * statement that asked for it commits without waiting for a table scan. Requests made
+ * while a rebuild is queued fold into it; a request made while one runs queues one
+ * more, whose scan then starts after the request's commit.
+ */
+class BackgroundRebuild {
+
+	private static final Logger LOG = LoggerFactory.getLogger(BackgroundRebuild.class);
+
+	private final Runnable rebuild;
+	private final ExecutorService executor;
+	private final AtomicBoolean queued = new AtomicBoolean();
+
+	BackgroundRebuild(String name, Runnable rebuild) {
+		this.rebuild = rebuild;
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(name + "-");
+		threadFactory.setDaemon(true);
+		executor = Executors.newSingleThreadExecutor(threadFactory);
+	}
+
+	void request() {
+		if (queued.compareAndSet(false, true)) {
+			executor.execute(this::run);
+		}
+	}
+
+	void shutdown() {
+		executor.shutdownNow();
+	}
+
+	private void run() {
+		queued.set(false);
+		try {
+			rebuild.run();
+		} catch (RuntimeException e) {
+			LOG.error("Rebuild failed, the previous state stays in use", e);
+		}
+	}
+
+}
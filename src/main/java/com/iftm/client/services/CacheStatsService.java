@@ -0,0 +1,64 @@
+package com.iftm.client.services;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.iftm.client.dto.CacheRegionStatsDTO;
+import com.iftm.client.entities.Client;
+
+@Service
+public class CacheStatsService {
+
+	@Autowired
+	private EntityManagerFactory emf;
+
+	public List<CacheRegionStatsDTO> findAll() {
+		Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+		List<CacheRegionStatsDTO> list = new ArrayList<>();
+		list.add(toDTO(Client.CACHE_REGION, statistics.getDomainDataRegionStatistics(Client.CACHE_REGION)));
+		list.add(toDTO(Client.QUERY_CACHE_REGION, statistics.getQueryRegionStatistics(Client.QUERY_CACHE_REGION)));
+		return list;
+	}
+
+	private CacheRegionStatsDTO toDTO(String region, CacheRegionStatistics stats) {
+		if (stats == null) {
+			// query regions are only built on first use
+			return new CacheRegionStatsDTO(region, 0L, 0L, 0L, evictions(region), 0L);
+		}
+		return new CacheRegionStatsDTO(region, stats.getHitCount(), stats.getMissCount(), stats.getPutCount(),
+				evictions(region), stats.getElementCountInMemory());
+	}
+
+	/*
+	 * Hibernate does not track evictions made by the cache provider, so they are read
+	 * from the JCache statistics MXBean that Caffeine registers for each region.
+	 */
+	private Long evictions(String region) {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			Set<ObjectName> names = server.queryNames(
+					new ObjectName("javax.cache:type=CacheStatistics,Cache=" + region + ",*"), null);
+			long total = 0;
+			for (ObjectName name : names) {
+				total += (Long) server.getAttribute(name, "CacheEvictions");
+			}
+			return total;
+		} catch (JMException e) {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,311 @@
+package com.iftm.client.services;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.IncomeStatsDTO;
+import com.iftm.client.repositories.ClientRepository;
+
+/*
+ * Income aggregates kept in memory per (children, birth decade) cell: count, exact sum
+ * and an IncomeSketch for percentiles. Built by a full scan once the application is
+ * ready (and in the background after bulk statements), then moved along by every ClientChangedEvent after
+ * commit, so reading them costs the same however many clients there are.
+ */
+@Service
+public class ClientAggregates {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ClientAggregates.class);
+
+	private static final long ABSENT = Long.MIN_VALUE;
+
+	@Autowired
+	private ClientRepository repository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private Map<CellKey, Cell> cells = new HashMap<>();
+
+	// changes delivered while a rebuild scans the table
+	private List<ClientChangedEvent> pending;
+
+	private BackgroundRebuild background;
+
+	@PostConstruct
+	void init() {
+		background = new BackgroundRebuild("client-aggregates", this::rebuild);
+	}
+
+	@PreDestroy
+	void shutdown() {
+		background.shutdown();
+	}
+
+	/*
+	 * The scan runs while clients keep changing, so it records the version of every row
+	 * it reads. Changes that arrive meanwhile are then replayed only if they start from
+	 * the state the scan saw; the others are already part of it.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public synchronized void rebuild() {
+		long start = System.nanoTime();
+		lock.writeLock().lock();
+		try {
+			pending = new ArrayList<>();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		Map<CellKey, Cell> newCells = new HashMap<>();
+		ScannedVersions scanned = new ScannedVersions();
+		boolean complete = false;
+		try {
+			TransactionTemplate template = new TransactionTemplate(transactionManager);
+			template.setReadOnly(true);
+			template.executeWithoutResult(status -> {
+				try (Stream<ClientDTO> clients = repository.streamAll()) {
+					clients.forEach(x -> {
+						add(newCells, x);
+						scanned.add(x.getId(), x.getVersion());
+					});
+				}
+			});
+			complete = true;
+		} finally {
+			lock.writeLock().lock();
+			try {
+				if (complete) {
+					Map<Long, Long> replayed = new HashMap<>();
+					for (ClientChangedEvent event : pending) {
+						Long id = event.getBefore() != null ? event.getBefore().getId() : event.getAfter().getId();
+						long seen = replayed.computeIfAbsent(id, scanned::versionOf);
+						if (seen == versionOf(event.getBefore())) {
+							apply(newCells, event);
+							replayed.put(id, versionOf(event.getAfter()));
+						}
+					}
+					cells = newCells;
+				}
+				pending = null;
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+		LOG.info("Aggregated {} clients in {} ms", scanned.size(), (System.nanoTime() - start) / 1_000_000);
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onClientChanged(ClientChangedEvent event) {
+		if (event.isBulk()) {
+			background.request();
+			return;
+		}
+		lock.writeLock().lock();
+		try {
+			apply(cells, event);
+			if (pending != null) {
+				pending.add(event);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/*
+	 * groupBy: null for the overall figures only, "children" or "birthDecade" to add one
+	 * group per value. min and max come from the sketch, so they share its accuracy.
+	 */
+	public IncomeStatsDTO incomeStats(List<Double> percentiles, String groupBy) {
+		Function<CellKey, Integer> groupKey = null;
+		if ("children".equals(groupBy)) {
+			groupKey = x -> x.children;
+		} else if ("birthDecade".equals(groupBy)) {
+			groupKey = x -> x.birthDecade;
+		}
+		lock.readLock().lock();
+		try {
+			Cell total = new Cell();
+			Map<Integer, Cell> groups = new TreeMap<>(Comparator.nullsLast(Comparator.naturalOrder()));
+			for (Map.Entry<CellKey, Cell> entry : cells.entrySet()) {
+				total.merge(entry.getValue());
+				if (groupKey != null) {
+					groups.computeIfAbsent(groupKey.apply(entry.getKey()), x -> new Cell()).merge(entry.getValue());
+				}
+			}
+			IncomeStatsDTO result = total.toDTO(percentiles);
+			for (Map.Entry<Integer, Cell> group : groups.entrySet()) {
+				IncomeStatsDTO stats = group.getValue().toDTO(percentiles);
+				if ("children".equals(groupBy)) {
+					stats.setChildren(group.getKey());
+				} else {
+					stats.setBirthDecade(group.getKey());
+				}
+				result.getGroups().add(stats);
+			}
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private static void apply(Map<CellKey, Cell> cells, ClientChangedEvent event) {
+		if (event.getBefore() != null) {
+			CellKey key = CellKey.of(event.getBefore());
+			Cell cell = cells.get(key);
+			if (cell != null) {
+				cell.remove(event.getBefore().getIncome());
+				if (cell.clients == 0) {
+					cells.remove(key);
+				}
+			}
+		}
+		if (event.getAfter() != null) {
+			add(cells, event.getAfter());
+		}
+	}
+
+	private static void add(Map<CellKey, Cell> cells, ClientDTO client) {
+		cells.computeIfAbsent(CellKey.of(client), x -> new Cell()).add(client.getIncome());
+	}
+
+	private static long versionOf(ClientDTO client) {
+		if (client == null) {
+			return ABSENT;
+		}
+		return client.getVersion() == null ? 0 : client.getVersion();
+	}
+
+	private static class CellKey {
+
+		private final Integer children;
+		private final Integer birthDecade;
+
+		private CellKey(Integer children, Integer birthDecade) {
+			this.children = children;
+			this.birthDecade = birthDecade;
+		}
+
+		static CellKey of(ClientDTO client) {
+			Instant birthDate = client.getBirthDate();
+			Integer decade = birthDate == null ? null : birthDate.atZone(ZoneOffset.UTC).getYear() / 10 * 10;
+			return new CellKey(client.getChildren(), decade);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(children, birthDecade);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof CellKey)) {
+				return false;
+			}
+			CellKey other = (CellKey) obj;
+			return Objects.equals(children, other.children) && Objects.equals(birthDecade, other.birthDecade);
+		}
+
+	}
+
+	/*
+	 * clients counts every client of the cell and only decides when it can go; the
+	 * figures cover the non-null incomes, as COUNT(income) does for /clients/stats/income.
+	 */
+	private static class Cell {
+
+		private long clients;
+		// in cents, so removing an income takes back exactly what adding it put in
+		private long sumCents;
+		private final IncomeSketch sketch = new IncomeSketch();
+
+		void add(Double income) {
+			clients++;
+			if (income != null) {
+				sumCents += Math.round(income * 100);
+				sketch.add(income);
+			}
+		}
+
+		void remove(Double income) {
+			clients--;
+			if (income != null) {
+				sumCents -= Math.round(income * 100);
+				sketch.remove(income);
+			}
+		}
+
+		void merge(Cell other) {
+			clients += other.clients;
+			sumCents += other.sumCents;
+			sketch.merge(other.sketch);
+		}
+
+		IncomeStatsDTO toDTO(List<Double> percentiles) {
+			long incomes = sketch.getCount();
+			Double avg = incomes == 0 ? null : sumCents / 100.0 / incomes;
+			IncomeStatsDTO stats = new IncomeStatsDTO(null, incomes, sketch.quantile(0.0), sketch.quantile(1.0), avg);
+			for (Double percentile : percentiles) {
+				stats.getPercentiles().put(IncomeStatsDTO.percentileKey(percentile), sketch.quantile(percentile));
+			}
+			return stats;
+		}
+
+	}
+
+	// ids arrive in ascending order (streamAll sorts by id), so lookups are binary searches
+	private static class ScannedVersions {
+
+		private long[] ids = new long[1024];
+		private long[] versions = new long[1024];
+		private int size;
+
+		void add(long id, Long version) {
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+				versions = Arrays.copyOf(versions, size * 2);
+			}
+			ids[size] = id;
+			versions[size] = version == null ? 0 : version;
+			size++;
+		}
+
+		long versionOf(Long id) {
+			int index = Arrays.binarySearch(ids, 0, size, id);
+			return index < 0 ? ABSENT : versions[index];
+		}
+
+		int size() {
+			return size;
+		}
+
+	}
+
+}
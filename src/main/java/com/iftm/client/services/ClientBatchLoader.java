@@ -0,0 +1,229 @@
+package com.iftm.client.services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.iftm.client.config.ReplicaLagGuard;
+import com.iftm.client.config.ReplicaRoutingDataSource;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.entities.Client;
+import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.services.exceptions.ResourceNotFoundException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Coalesces concurrent GET /clients/{id} lookups (client.batch.enabled=true), in front
+ * of ClientService.findById so that a waiting request holds no connection:
+ *  - a lookup for an id that is already in flight waits for that load (single-flight);
+ *  - other ids are collected for up to client.batch.window and loaded together, at most
+ *    client.batch.max-size per query. A full batch is loaded right away on the thread
+ *    that filled it, a batch whose window ran out on one of client.batch.workers
+ *    threads; the scheduler thread only keeps the time.
+ * Loads go through ClientRepository.findAllByIdInOrder, so ids in the second-level
+ * cache still skip the database.
+ *
+ * The worker threads have no request, so ReplicaLagGuard cannot tell who is asking.
+ * Callers it would keep on the primary are batched apart from the others and their
+ * batches are loaded with ReplicaRoutingDataSource.readFromPrimary.
+ *
+ * Metrics: client.batch.lookups (result=coalesced|batched) and client.batch.size, the
+ * number of ids per load.
+ */
+@Service
+public class ClientBatchLoader {
+
+	@Autowired
+	private ClientRepository repository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	// only there with read replicas configured
+	@Autowired(required = false)
+	private ReplicaLagGuard lagGuard;
+
+	@Value("${client.batch.enabled:false}")
+	private boolean enabled;
+
+	@Value("${client.batch.window:2ms}")
+	private Duration window;
+
+	@Value("${client.batch.max-size:100}")
+	private int maxSize;
+
+	@Value("${client.batch.workers:4}")
+	private int workers;
+
+	private final Lane replicaLane = new Lane(false);
+	private final Lane primaryLane = new Lane(true);
+
+	private ScheduledExecutorService scheduler;
+	// unbounded queue, but every queued batch has a request thread waiting on it
+	private ExecutorService loaders;
+	private TransactionTemplate readOnly;
+	private Counter coalesced;
+	private Counter batched;
+	private DistributionSummary batchSize;
+
+	@PostConstruct
+	void init() {
+		if (!enabled) {
+			return;
+		}
+		scheduler = new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory("client-batch-timer-"));
+		loaders = Executors.newFixedThreadPool(workers, new CustomizableThreadFactory("client-batch-"));
+		readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+		coalesced = registry.counter("client.batch.lookups", "result", "coalesced");
+		batched = registry.counter("client.batch.lookups", "result", "batched");
+		batchSize = DistributionSummary.builder("client.batch.size").baseUnit("ids").register(registry);
+	}
+
+	@PreDestroy
+	void shutdown() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+			loaders.shutdownNow();
+		}
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public ClientDTO load(Long id) {
+		Lane lane = lagGuard != null && lagGuard.recentlyWrote() ? primaryLane : replicaLane;
+		return lane.load(id);
+	}
+
+	private static ClientDTO await(CompletableFuture<ClientDTO> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	// pending and in-flight lookups of the callers routed one way
+	private class Lane {
+
+		private final boolean primary;
+		private final Map<Long, CompletableFuture<ClientDTO>> inFlight = new ConcurrentHashMap<>();
+		private Map<Long, CompletableFuture<ClientDTO>> pending = new LinkedHashMap<>();
+
+		Lane(boolean primary) {
+			this.primary = primary;
+		}
+
+		ClientDTO load(Long id) {
+			CompletableFuture<ClientDTO> future = new CompletableFuture<>();
+			CompletableFuture<ClientDTO> existing = inFlight.putIfAbsent(id, future);
+			if (existing != null) {
+				coalesced.increment();
+				return await(existing);
+			}
+			batched.increment();
+			Map<Long, CompletableFuture<ClientDTO>> full = null;
+			synchronized (this) {
+				if (pending.isEmpty()) {
+					Map<Long, CompletableFuture<ClientDTO>> batch = pending;
+					scheduler.schedule(() -> flushIfPending(batch), window.toNanos(), TimeUnit.NANOSECONDS);
+				}
+				pending.put(id, future);
+				if (pending.size() >= maxSize) {
+					full = pending;
+					pending = new LinkedHashMap<>();
+				}
+			}
+			if (full != null) {
+				load(full);
+			}
+			return await(future);
+		}
+
+		// the window timer of a batch that already went out as full finds it replaced
+		private void flushIfPending(Map<Long, CompletableFuture<ClientDTO>> batch) {
+			synchronized (this) {
+				if (pending != batch) {
+					return;
+				}
+				pending = new LinkedHashMap<>();
+			}
+			try {
+				loaders.execute(() -> load(batch));
+			} catch (RejectedExecutionException e) {
+				fail(batch, e);
+			}
+		}
+
+		private void load(Map<Long, CompletableFuture<ClientDTO>> batch) {
+			List<Long> ids = new ArrayList<>(batch.keySet());
+			batchSize.record(ids.size());
+			List<Client> clients;
+			try {
+				clients = primary
+						? ReplicaRoutingDataSource.readFromPrimary(() -> findAllByIdInOrder(ids))
+						: findAllByIdInOrder(ids);
+			} catch (RuntimeException e) {
+				fail(batch, e);
+				return;
+			}
+			for (int i = 0; i < ids.size(); i++) {
+				Long id = ids.get(i);
+				Client client = clients.get(i);
+				CompletableFuture<ClientDTO> future = batch.get(id);
+				// later lookups start a fresh load rather than reuse this result
+				inFlight.remove(id, future);
+				if (client == null) {
+					future.completeExceptionally(new ResourceNotFoundException("Entity not found"));
+				} else {
+					future.complete(new ClientDTO(client));
+				}
+			}
+		}
+
+		private List<Client> findAllByIdInOrder(List<Long> ids) {
+			return readOnly.execute(status -> repository.findAllByIdInOrder(ids, maxSize));
+		}
+
+		private void fail(Map<Long, CompletableFuture<ClientDTO>> batch, RuntimeException e) {
+			batch.forEach((id, future) -> {
+				inFlight.remove(id, future);
+				future.completeExceptionally(e);
+			});
+		}
+
+	}
+
+}
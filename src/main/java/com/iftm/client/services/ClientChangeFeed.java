@@ -0,0 +1,140 @@
+package com.iftm.client.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iftm.client.config.ReplicaRoutingDataSource;
+import com.iftm.client.dto.ClientChangeDTO;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.CursorPageDTO;
+import com.iftm.client.entities.ClientChange;
+import com.iftm.client.entities.ClientChangeType;
+import com.iftm.client.repositories.ClientChangeRepository;
+import com.iftm.client.services.exceptions.InvalidRequestException;
+
+/*
+ * Change feed over tb_client_change. Rows are written just before the client change
+ * commits, in the same transaction, and read back in id order from a cursor.
+ *
+ * Ids are taken before commit, so a transaction can commit a lower id after a higher
+ * one is already visible. Reads therefore stop before the first row younger than the
+ * settle time, which has to exceed the time between writing the row and committing.
+ * Stopping there, rather than skipping young rows, also covers a higher id stamped
+ * earlier than a lower one.
+ *
+ * That only holds while ids follow the order rows are written in: ClientChange takes
+ * them from the sequence one at a time (allocationSize 1), and this listener has to
+ * stay the single writer of tb_client_change. Anything else inserting there, or an id
+ * generator that reserves blocks, can commit ids below a consumer's cursor long after
+ * the settle time and the consumer never sees them.
+ *
+ * For the same reason reads go to the primary even with replicas configured: a replica
+ * applies commits with a lag of its own, unbounded by the settle time.
+ */
+@Service
+public class ClientChangeFeed {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ClientChangeFeed.class);
+
+	public static final int MAX_BATCH_SIZE = 1000;
+
+	@Autowired
+	private ClientChangeRepository repository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Value("${client.changes.settle-time:1s}")
+	private Duration settleTime;
+
+	@Value("${client.changes.retention:7d}")
+	private Duration retention;
+
+	@Value("${client.changes.compaction-age:1d}")
+	private Duration compactionAge;
+
+	@TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+	public void onClientChanged(ClientChangedEvent event) {
+		Instant now = Instant.now();
+		if (event.isBulk()) {
+			repository.save(new ClientChange(null, ClientChangeType.RESYNC, null, null, now));
+		} else if (event.getAfter() == null) {
+			ClientDTO before = event.getBefore();
+			repository.save(new ClientChange(before.getId(), ClientChangeType.DELETE, before.getVersion(), null, now));
+		} else {
+			ClientDTO after = event.getAfter();
+			ClientChangeType type = event.getBefore() == null ? ClientChangeType.INSERT : ClientChangeType.UPDATE;
+			repository.save(new ClientChange(after.getId(), type, after.getVersion(), toJson(after), now));
+		}
+	}
+
+	/*
+	 * Up to "limit" changes after the cursor (a change id, null or empty for the start).
+	 * nextCursor is always set: at the end of the feed it is the cursor to poll with.
+	 */
+	@Transactional(readOnly = true)
+	public CursorPageDTO<ClientChangeDTO> findChanges(String cursor, int limit) {
+		if (limit < 1 || limit > MAX_BATCH_SIZE) {
+			throw new InvalidRequestException("limit must be between 1 and " + MAX_BATCH_SIZE);
+		}
+		long since = parseCursor(cursor);
+		List<ClientChangeDTO> changes = ReplicaRoutingDataSource
+				.readFromPrimary(() -> repository.findAfter(since, Instant.now().minus(settleTime),
+						PageRequest.of(0, limit + 1)))
+				.stream().map(x -> new ClientChangeDTO(x)).collect(Collectors.toList());
+		boolean hasNext = changes.size() > limit;
+		List<ClientChangeDTO> content = hasNext ? changes.subList(0, limit) : changes;
+		long last = content.isEmpty() ? since : content.get(content.size() - 1).getId();
+		return new CursorPageDTO<>(content, limit, hasNext, Long.toString(last));
+	}
+
+	/*
+	 * Compaction drops changes older than compaction-age that a later change of the same
+	 * client supersedes; retention drops everything older than retention. Consumers
+	 * further behind than the retention have to reload the clients.
+	 */
+	@Scheduled(fixedDelayString = "${client.changes.compaction-interval:PT1H}",
+			initialDelayString = "${client.changes.compaction-interval:PT1H}")
+	@Transactional
+	public void compact() {
+		Instant now = Instant.now();
+		int expired = repository.deleteOlderThan(now.minus(retention));
+		int superseded = repository.deleteSupersededOlderThan(now.minus(compactionAge));
+		LOG.info("Change feed compaction removed {} expired and {} superseded changes", expired, superseded);
+	}
+
+	private String toJson(ClientDTO client) {
+		try {
+			return objectMapper.writeValueAsString(client);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Client " + client.getId() + " could not be serialized", e);
+		}
+	}
+
+	private static long parseCursor(String cursor) {
+		if (cursor == null || cursor.isEmpty()) {
+			return 0;
+		}
+		try {
+			return Long.parseLong(cursor);
+		} catch (NumberFormatException e) {
+			throw new InvalidRequestException("Invalid cursor");
+		}
+	}
+
+}
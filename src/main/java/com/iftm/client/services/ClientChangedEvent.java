@@ -0,0 +1,49 @@
+package com.iftm.client.services;
+
+import com.iftm.client.dto.ClientDTO;
+
+/*
+ * Published by ClientService (and ClientDataGenerator) for every committed write, so
+ * in-memory views of tb_client can follow along. before is null for an insert, after
+ * is null for a delete. Bulk statements do not say which rows they touched: both are
+ * null and listeners rebuild from the table.
+ */
+public class ClientChangedEvent {
+
+	private final ClientDTO before;
+	private final ClientDTO after;
+
+	private ClientChangedEvent(ClientDTO before, ClientDTO after) {
+		this.before = before;
+		this.after = after;
+	}
+
+	public static ClientChangedEvent inserted(ClientDTO after) {
+		return new ClientChangedEvent(null, after);
+	}
+
+	public static ClientChangedEvent updated(ClientDTO before, ClientDTO after) {
+		return new ClientChangedEvent(before, after);
+	}
+
+	public static ClientChangedEvent deleted(ClientDTO before) {
+		return new ClientChangedEvent(before, null);
+	}
+
+	public static ClientChangedEvent bulk() {
+		return new ClientChangedEvent(null, null);
+	}
+
+	public ClientDTO getBefore() {
+		return before;
+	}
+
+	public ClientDTO getAfter() {
+		return after;
+	}
+
+	public boolean isBulk() {
+		return before == null && after == null;
+	}
+
+}
@@ -0,0 +1,62 @@
+package com.iftm.client.services;
+
+import java.time.Duration;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.iftm.client.repositories.ClientRepository;
+
+/*
+ * Row counts for the APPROXIMATE listing mode. The first request for a filter counts
+ * synchronously; after the refresh interval the stale value keeps being served while
+ * a background reload runs, so at most one COUNT per filter and interval reaches the
+ * database.
+ */
+@Service
+public class ClientCountService {
+
+	// key for the unfiltered listing; clients always have an income
+	private static final Double ALL = Double.NEGATIVE_INFINITY;
+
+	@Autowired
+	private ClientRepository repository;
+
+	@Value("${client.count.refresh-interval:30s}")
+	private Duration refreshInterval;
+
+	@Value("${client.count.max-filters:1000}")
+	private long maxFilters;
+
+	private LoadingCache<Double, Long> counts;
+
+	@PostConstruct
+	void init() {
+		counts = Caffeine.newBuilder()
+				.maximumSize(maxFilters)
+				.refreshAfterWrite(refreshInterval)
+				.build(this::load);
+	}
+
+	public long approximateCount() {
+		return counts.get(ALL);
+	}
+
+	public long approximateCountByIncome(Double income) {
+		return counts.get(income == null ? ALL : income);
+	}
+
+	public void invalidate() {
+		counts.invalidateAll();
+	}
+
+	private Long load(Double income) {
+		return ALL.equals(income) ? repository.count() : repository.countByIncomeGreaterThanEqual(income);
+	}
+
+}
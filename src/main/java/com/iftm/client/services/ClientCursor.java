@@ -0,0 +1,129 @@
+package com.iftm.client.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import org.springframework.data.domain.Sort.Direction;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.services.exceptions.InvalidRequestException;
+
+/*
+ * Opaque continuation token for keyset pagination. Encodes the sort column, the
+ * direction and the (sort value, id) pair of the last row returned, so the next
+ * page is a range scan instead of an OFFSET. A null sort value is encoded by leaving
+ * the value part out altogether, so it cannot be confused with an empty string.
+ */
+public class ClientCursor {
+
+	private static final String SEPARATOR = "|";
+
+	private final String orderBy;
+	private final Direction direction;
+	private final Object lastValue;
+	private final Long lastId;
+
+	public ClientCursor(String orderBy, Direction direction, Object lastValue, Long lastId) {
+		this.orderBy = orderBy;
+		this.direction = direction;
+		this.lastValue = lastValue;
+		this.lastId = lastId;
+	}
+
+	public static ClientCursor first(String orderBy, Direction direction) {
+		checkOrderBy(orderBy);
+		return new ClientCursor(orderBy, direction, null, null);
+	}
+
+	public static ClientCursor after(ClientDTO dto, String orderBy, Direction direction) {
+		return new ClientCursor(orderBy, direction, valueOf(dto, orderBy), dto.getId());
+	}
+
+	public static ClientCursor decode(String token) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			String[] parts = raw.split("\\" + SEPARATOR, 4);
+			String orderBy = parts[0];
+			checkOrderBy(orderBy);
+			Direction direction = Direction.valueOf(parts[1]);
+			Long lastId = Long.valueOf(parts[2]);
+			Object lastValue = parts.length == 4 ? parseValue(orderBy, parts[3]) : null;
+			return new ClientCursor(orderBy, direction, lastValue, lastId);
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException | DateTimeParseException e) {
+			throw new InvalidRequestException("Invalid cursor");
+		}
+	}
+
+	public String encode() {
+		String raw = orderBy + SEPARATOR + direction.name() + SEPARATOR + lastId;
+		if (lastValue != null) {
+			raw += SEPARATOR + lastValue;
+		}
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public String getOrderBy() {
+		return orderBy;
+	}
+
+	public Direction getDirection() {
+		return direction;
+	}
+
+	public Object getLastValue() {
+		return lastValue;
+	}
+
+	public Long getLastId() {
+		return lastId;
+	}
+
+	private static void checkOrderBy(String orderBy) {
+		switch (orderBy) {
+		case "id":
+		case "name":
+		case "cpf":
+		case "income":
+		case "birthDate":
+		case "children":
+			return;
+		default:
+			throw new InvalidRequestException("Cannot seek by " + orderBy);
+		}
+	}
+
+	private static Object valueOf(ClientDTO dto, String orderBy) {
+		switch (orderBy) {
+		case "id":
+			return dto.getId();
+		case "name":
+			return dto.getName();
+		case "cpf":
+			return dto.getCpf();
+		case "income":
+			return dto.getIncome();
+		case "birthDate":
+			return dto.getBirthDate();
+		default:
+			return dto.getChildren();
+		}
+	}
+
+	private static Object parseValue(String orderBy, String value) {
+		switch (orderBy) {
+		case "id":
+			return Long.valueOf(value);
+		case "income":
+			return Double.valueOf(value);
+		case "birthDate":
+			return Instant.parse(value);
+		case "children":
+			return Integer.valueOf(value);
+		default:
+			return value;
+		}
+	}
+
+}
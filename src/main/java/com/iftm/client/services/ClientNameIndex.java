@@ -0,0 +1,317 @@
+package com.iftm.client.services;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.ClientNameMatchDTO;
+import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.services.exceptions.InvalidRequestException;
+
+/*
+ * In-memory inverted index over Client.name. Names are accent-folded ("Conceição" ->
+ * "conceicao"), lower-cased and split into word tokens once, when indexed; postings sit
+ * in a sorted map so each query term is a prefix range, and candidates are scored
+ * against their stored tokens. Built from the table once the application is
+ * ready and kept in sync by ClientChangedEvent after each commit; bulk statements
+ * trigger a rebuild in the background.
+ */
+@Service
+public class ClientNameIndex {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ClientNameIndex.class);
+
+	public static final int MAX_RESULTS = 100;
+
+	private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+	private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+	private static final double EXACT_TERM = 2.0;
+	private static final double PREFIX_TERM = 1.0;
+	private static final double LEADING_TERM = 0.5;
+
+	private static final long ABSENT = Long.MIN_VALUE;
+	private static final long DELETED = Long.MAX_VALUE;
+
+	@Autowired
+	private ClientRepository repository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private NavigableMap<String, Set<Long>> postings = new TreeMap<>();
+	private Map<Long, IndexedName> names = new HashMap<>();
+	// version each client was indexed at, DELETED for removed clients
+	private Map<Long, Long> versions = new HashMap<>();
+
+	// changes committed while a rebuild scans the table, replayed on the new index
+	private List<ClientChangedEvent> pending;
+
+	private BackgroundRebuild background;
+
+	@PostConstruct
+	void init() {
+		background = new BackgroundRebuild("client-name-index", this::rebuild);
+	}
+
+	@PreDestroy
+	void shutdown() {
+		background.shutdown();
+	}
+
+	// synchronized: a second rebuild would replace the pending list of the first
+	@EventListener(ApplicationReadyEvent.class)
+	public synchronized void rebuild() {
+		long start = System.nanoTime();
+		lock.writeLock().lock();
+		try {
+			pending = new ArrayList<>();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		NavigableMap<String, Set<Long>> newPostings = new TreeMap<>();
+		Map<Long, IndexedName> newNames = new HashMap<>();
+		Map<Long, Long> newVersions = new HashMap<>();
+		boolean scanned = false;
+		try {
+			TransactionTemplate template = new TransactionTemplate(transactionManager);
+			template.setReadOnly(true);
+			template.executeWithoutResult(status -> {
+				try (Stream<ClientDTO> clients = repository.streamAll()) {
+					clients.forEach(x -> {
+						add(newPostings, newNames, x.getId(), x.getName());
+						newVersions.put(x.getId(), versionOf(x));
+					});
+				}
+			});
+			scanned = true;
+		} finally {
+			lock.writeLock().lock();
+			try {
+				// a failed scan keeps the old index but still replays what arrived meanwhile;
+				// changes the scan already saw are dropped by their version
+				if (scanned) {
+					postings = newPostings;
+					names = newNames;
+					versions = newVersions;
+				}
+				pending.forEach(this::apply);
+				pending = null;
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+		LOG.info("Indexed {} client names in {} ms", newNames.size(), (System.nanoTime() - start) / 1_000_000);
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onClientChanged(ClientChangedEvent event) {
+		if (event.isBulk()) {
+			background.request();
+			return;
+		}
+		lock.writeLock().lock();
+		try {
+			apply(event);
+			if (pending != null) {
+				pending.add(event);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/*
+	 * Every term of q has to match a token of the name, as a whole word or as a prefix.
+	 * Whole words score more than prefixes and a match on the first word adds a bonus;
+	 * ties go to the shorter name.
+	 */
+	public List<ClientNameMatchDTO> search(String q, int limit) {
+		if (limit < 1 || limit > MAX_RESULTS) {
+			throw new InvalidRequestException("limit must be between 1 and " + MAX_RESULTS);
+		}
+		List<String> terms = tokenize(q);
+		if (terms.isEmpty()) {
+			throw new InvalidRequestException("q must contain at least one letter or digit");
+		}
+		List<ClientNameMatchDTO> matches = new ArrayList<>();
+		lock.readLock().lock();
+		try {
+			for (Long id : candidates(terms)) {
+				IndexedName name = names.get(id);
+				double score = score(terms, name.tokens);
+				if (score > 0) {
+					matches.add(new ClientNameMatchDTO(id, name.name, score));
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		matches.sort(Comparator.comparing(ClientNameMatchDTO::getScore).reversed()
+				.thenComparing(x -> x.getName().length())
+				.thenComparing(ClientNameMatchDTO::getId));
+		return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return names.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	static List<String> tokenize(String text) {
+		List<String> tokens = new ArrayList<>();
+		if (text == null) {
+			return tokens;
+		}
+		String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase();
+		for (String token : SEPARATORS.split(folded)) {
+			if (!token.isEmpty()) {
+				tokens.add(token);
+			}
+		}
+		return tokens;
+	}
+
+	// ids under the most selective term; the other terms are checked by score()
+	private Collection<Long> candidates(List<String> terms) {
+		Collection<Set<Long>> best = null;
+		int bestSize = Integer.MAX_VALUE;
+		for (String term : terms) {
+			Collection<Set<Long>> ranges = prefixRange(term).values();
+			int size = 0;
+			for (Set<Long> ids : ranges) {
+				size += ids.size();
+			}
+			if (size < bestSize) {
+				best = ranges;
+				bestSize = size;
+			}
+		}
+		Set<Long> ids = new HashSet<>(bestSize);
+		best.forEach(ids::addAll);
+		return ids;
+	}
+
+	private NavigableMap<String, Set<Long>> prefixRange(String prefix) {
+		return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+	}
+
+	private static double score(List<String> terms, List<String> tokens) {
+		double total = 0;
+		for (String term : terms) {
+			double best = 0;
+			for (int i = 0; i < tokens.size(); i++) {
+				String token = tokens.get(i);
+				double score = token.equals(term) ? EXACT_TERM : token.startsWith(term) ? PREFIX_TERM : 0;
+				if (score > 0 && i == 0) {
+					score += LEADING_TERM;
+				}
+				best = Math.max(best, score);
+			}
+			if (best == 0) {
+				return 0;
+			}
+			total += best;
+		}
+		return total;
+	}
+
+	/*
+	 * Listeners run on the committing threads, so two changes of one client can arrive
+	 * in either order. An event older than the indexed version is dropped. A delete
+	 * leaves a tombstone that outranks every version (ids are not reused) until the
+	 * next rebuild, so an update delivered after it cannot bring the name back.
+	 */
+	private void apply(ClientChangedEvent event) {
+		ClientDTO after = event.getAfter();
+		Long id = after != null ? after.getId() : event.getBefore().getId();
+		long indexed = versions.getOrDefault(id, ABSENT);
+		if (after == null) {
+			if (versionOf(event.getBefore()) >= indexed) {
+				remove(id);
+				versions.put(id, DELETED);
+			}
+		} else if (versionOf(after) > indexed) {
+			remove(id);
+			add(postings, names, id, after.getName());
+			versions.put(id, versionOf(after));
+		}
+	}
+
+	private void remove(Long id) {
+		IndexedName name = names.remove(id);
+		if (name == null) {
+			return;
+		}
+		for (String token : name.tokens) {
+			Set<Long> ids = postings.get(token);
+			if (ids != null) {
+				ids.remove(id);
+				if (ids.isEmpty()) {
+					postings.remove(token);
+				}
+			}
+		}
+	}
+
+	private static long versionOf(ClientDTO client) {
+		return client.getVersion() == null ? 0 : client.getVersion();
+	}
+
+	private static void add(Map<String, Set<Long>> postings, Map<Long, IndexedName> names, Long id, String name) {
+		if (name == null) {
+			return;
+		}
+		IndexedName indexed = new IndexedName(name, tokenize(name));
+		names.put(id, indexed);
+		for (String token : indexed.tokens) {
+			postings.computeIfAbsent(token, x -> new HashSet<>()).add(id);
+		}
+	}
+
+	// the name as returned and its tokens as matched, folded once when the client is indexed
+	private static final class IndexedName {
+
+		private final String name;
+		private final List<String> tokens;
+
+		IndexedName(String name, List<String> tokens) {
+			this.name = name;
+			this.tokens = tokens;
+		}
+
+	}
+
+}
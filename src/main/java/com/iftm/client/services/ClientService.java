@@ -1,85 +1,620 @@
 package com.iftm.client.services;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import javax.persistence.EntityManager;
 import javax.persistence.EntityNotFoundException;
+import javax.persistence.PersistenceContext;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iftm.client.dto.ClientChangeDTO;
 import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.ClientFilterDTO;
+import com.iftm.client.dto.ClientListVersionDTO;
+import com.iftm.client.dto.ClientLookupDTO;
+import com.iftm.client.dto.ClientNameMatchDTO;
+import com.iftm.client.dto.ClientVersionDTO;
+import com.iftm.client.dto.CursorPageDTO;
+import com.iftm.client.dto.IncomeBucketDTO;
+import com.iftm.client.dto.IncomeStatsDTO;
 import com.iftm.client.entities.Client;
 import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.repositories.ClientSpecifications;
 import com.iftm.client.services.exceptions.DatabaseException;
+import com.iftm.client.services.exceptions.InvalidRequestException;
 import com.iftm.client.services.exceptions.ResourceNotFoundException;
+import com.iftm.client.services.exceptions.VersionConflictException;
 
 @Service
 public class ClientService {
 	
+	private static final int EXPORT_FLUSH_INTERVAL = 1000;
+	private static final int INSERT_CHUNK_SIZE = 1000;
+	private static final int INSERT_MAX_SIZE = 10000;
+	private static final int BULK_CHUNK_SIZE = 1000;
+	private static final int BULK_MAX_SIZE = 100000;
+	private static final int STATS_MAX_BUCKETS = 1000;
+	private static final int STATS_MAX_PERCENTILES = 20;
+	private static final int LOOKUP_CHUNK_SIZE = 100;
+	private static final int LOOKUP_MAX_SIZE = 1000;
+	private static final int SEEK_MAX_SIZE = 1000;
+	private static final int PATCH_ATTEMPTS = 3;
+	
 	@Autowired
 	private ClientRepository repository;
 	
+	@PersistenceContext
+	private EntityManager em;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@Autowired
+	private ClientCountService countService;
+	
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+	
+	@Autowired
+	private ClientNameIndex nameIndex;
+	
+	@Autowired
+	private ClientAggregates aggregates;
+	
+	@Autowired
+	private ClientChangeFeed changeFeed;
+	
 	@Transactional(readOnly = true)
 	public Page<ClientDTO> findAllPaged(PageRequest pageRequest) {
-		Page<Client> list =  repository.findAll(pageRequest);
-		return list.map(x -> new ClientDTO(x));
+		return repository.findAllProjected(pageRequest);
 	}
 	
 	@Transactional(readOnly = true)
 	public Page<ClientDTO> findByIncome(Double income,PageRequest pageRequest) {
-		Page<Client> list =  repository.findByIncome(income,pageRequest);
-		return list.map(x -> new ClientDTO(x));
+		return findByIncome(income, pageRequest, repository.countByIncomeGreaterThanEqual(income));
+	}
+	
+	@Transactional(readOnly = true)
+	public Slice<ClientDTO> findAllPaged(PageRequest pageRequest, CountMode count) {
+		switch (count) {
+		case NONE:
+			return repository.findAllSliced(pageRequest);
+		case APPROXIMATE:
+			return withTotal(repository.findAllSliced(pageRequest), countService.approximateCount());
+		default:
+			return findAllPaged(pageRequest);
+		}
+	}
+	
+	@Transactional(readOnly = true)
+	public Slice<ClientDTO> findByIncome(Double income, PageRequest pageRequest, CountMode count) {
+		switch (count) {
+		case NONE:
+			return repository.findByIncomeSliced(income, pageRequest);
+		case APPROXIMATE:
+			return withTotal(repository.findByIncomeSliced(income, pageRequest),
+					countService.approximateCountByIncome(income));
+		default:
+			return findByIncome(income, pageRequest);
+		}
+	}
+	
+	// count=exact with the total already known, e.g. from findListVersion
+	@Transactional(readOnly = true)
+	public Page<ClientDTO> findAllPaged(PageRequest pageRequest, long total) {
+		return new PageImpl<>(repository.findAllSliced(pageRequest).getContent(), pageRequest, total);
+	}
+	
+	@Transactional(readOnly = true)
+	public Page<ClientDTO> findByIncome(Double income, PageRequest pageRequest, long total) {
+		return new PageImpl<>(repository.findByIncomeSliced(income, pageRequest).getContent(), pageRequest, total);
+	}
+	
+	/*
+	 * The slice is exact about where the listing ends, so the cached total is only
+	 * trusted in between: at least one row past this page while hasNext, exactly the
+	 * rows seen so far on the last page.
+	 */
+	private static Page<ClientDTO> withTotal(Slice<ClientDTO> slice, long approximateTotal) {
+		long seen = slice.getPageable().getOffset() + slice.getNumberOfElements();
+		long total = slice.hasNext() ? Math.max(approximateTotal, seen + 1) : seen;
+		return new PageImpl<>(slice.getContent(), slice.getPageable(), total);
+	}
+	
+	@Transactional(readOnly = true)
+	public CursorPageDTO<ClientDTO> findAllSeek(String cursor, Integer size, Direction direction, String orderBy) {
+		return findByIncomeSeek(null, cursor, size, direction, orderBy);
+	}
+	
+	@Transactional(readOnly = true)
+	public CursorPageDTO<ClientDTO> findByIncomeSeek(Double income, String cursor, Integer size, Direction direction,
+			String orderBy) {
+		// also keeps size + 1, the row that tells whether there is a next page, from overflowing
+		if (size < 1 || size > SEEK_MAX_SIZE) {
+			throw new InvalidRequestException("linesPerPage must be between 1 and " + SEEK_MAX_SIZE);
+		}
+		ClientCursor position = cursor == null ? ClientCursor.first(orderBy, direction) : ClientCursor.decode(cursor);
+		List<ClientDTO> rows = repository.findAfter(income, position.getOrderBy(), position.getDirection(),
+				position.getLastValue(), position.getLastId(), size + 1);
+		boolean hasNext = rows.size() > size;
+		List<ClientDTO> content = hasNext ? rows.subList(0, size) : rows;
+		String nextCursor = null;
+		if (hasNext) {
+			ClientDTO last = content.get(content.size() - 1);
+			nextCursor = ClientCursor.after(last, position.getOrderBy(), position.getDirection()).encode();
+		}
+		return new CursorPageDTO<>(content, size, hasNext, nextCursor);
 	}
 	
 	@Transactional(readOnly = true)
 	public ClientDTO findById(Long id) {
+		// entity lookup rather than projection so repeated reads are served by the "client" cache region
 		Optional<Client> obj = repository.findById(id);
 		Client entity = obj.orElseThrow(() -> new ResourceNotFoundException("Entity not found"));
 		return new ClientDTO(entity);
 	}
 	
+	/*
+	 * Each distinct id once, in request order; ids without a client are listed as missing.
+	 * Cached clients come from the second-level cache, the rest from IN queries of
+	 * LOOKUP_CHUNK_SIZE ids.
+	 */
+	@Transactional(readOnly = true)
+	public ClientLookupDTO findAllById(List<Long> ids) {
+		if (ids.size() > LOOKUP_MAX_SIZE) {
+			throw new InvalidRequestException("At most " + LOOKUP_MAX_SIZE + " ids per lookup");
+		}
+		if (ids.stream().anyMatch(Objects::isNull)) {
+			throw new InvalidRequestException("ids must not contain null");
+		}
+		List<Long> distinct = ids.stream().distinct().collect(Collectors.toList());
+		List<Client> clients = repository.findAllByIdInOrder(distinct, LOOKUP_CHUNK_SIZE);
+		ClientLookupDTO result = new ClientLookupDTO();
+		for (int i = 0; i < distinct.size(); i++) {
+			if (clients.get(i) == null) {
+				result.getMissing().add(distinct.get(i));
+			} else {
+				result.getContent().add(new ClientDTO(clients.get(i)));
+			}
+		}
+		return result;
+	}
+	
+	@Transactional(readOnly = true)
+	public Page<ClientDTO> search(ClientFilterDTO filter, PageRequest pageRequest) {
+		return repository.findAll(ClientSpecifications.matching(filter), pageRequest).map(x -> new ClientDTO(x));
+	}
+	
+	// served from the in-memory index, no database access
+	public List<ClientNameMatchDTO> searchByName(String q, int limit) {
+		return nameIndex.search(q, limit);
+	}
+	
+	/*
+	 * Two aggregate queries, whatever the table size: one for count/min/max/avg/percentiles
+	 * and one for the histogram, whose equal-width buckets span the overall [min, max]
+	 * so that groups are comparable. Grouped, the overall histogram is summed from the
+	 * groups and only the scalar aggregates take a third query.
+	 */
+	@Transactional(readOnly = true)
+	public IncomeStatsDTO incomeStats(List<Double> percentiles, int buckets, boolean byChildren) {
+		if (buckets < 1 || buckets > STATS_MAX_BUCKETS) {
+			throw new InvalidRequestException("buckets must be between 1 and " + STATS_MAX_BUCKETS);
+		}
+		validatePercentiles(percentiles);
+		IncomeStatsDTO total = repository.incomeStats(percentiles, false).get(0);
+		if (total.getCount() == 0) {
+			return total;
+		}
+		double min = total.getMin();
+		double width = total.getMax() > min ? (total.getMax() - min) / buckets : 1.0;
+		Map<Integer, long[]> counts = repository.incomeHistogram(min, width, buckets, byChildren);
+		long[] totalCounts = new long[buckets];
+		if (byChildren) {
+			total.setGroups(repository.incomeStats(percentiles, true));
+			for (IncomeStatsDTO group : total.getGroups()) {
+				long[] groupCounts = counts.getOrDefault(group.getChildren(), new long[buckets]);
+				group.setHistogram(histogram(min, width, groupCounts));
+				for (int i = 0; i < buckets; i++) {
+					totalCounts[i] += groupCounts[i];
+				}
+			}
+		} else {
+			totalCounts = counts.getOrDefault(null, totalCounts);
+		}
+		total.setHistogram(histogram(min, width, totalCounts));
+		return total;
+	}
+	
+	/*
+	 * Same figures from the in-memory aggregates: no database access and constant cost,
+	 * percentiles (and min/max) within IncomeSketch.RELATIVE_ACCURACY, no histogram.
+	 */
+	public IncomeStatsDTO liveIncomeStats(List<Double> percentiles, String groupBy) {
+		validatePercentiles(percentiles);
+		return aggregates.incomeStats(percentiles, groupBy);
+	}
+	
+	private static void validatePercentiles(List<Double> percentiles) {
+		if (percentiles.size() > STATS_MAX_PERCENTILES
+				|| percentiles.stream().anyMatch(x -> x == null || !(x >= 0.0 && x <= 1.0))) {
+			throw new InvalidRequestException(
+					"At most " + STATS_MAX_PERCENTILES + " percentiles, each between 0 and 1, are allowed");
+		}
+	}
+	
+	private static List<IncomeBucketDTO> histogram(double min, double width, long[] counts) {
+		List<IncomeBucketDTO> histogram = new ArrayList<>(counts.length);
+		for (int i = 0; i < counts.length; i++) {
+			histogram.add(new IncomeBucketDTO(min + i * width, min + (i + 1) * width, counts[i]));
+		}
+		return histogram;
+	}
+	
+	public CursorPageDTO<ClientChangeDTO> findChanges(String cursor, int limit) {
+		return changeFeed.findChanges(cursor, limit);
+	}
+	
+	// conditional GETs check these before reading (and serializing) the client itself
+	@Transactional(readOnly = true)
+	public ClientVersionDTO findVersion(Long id) {
+		return repository.findVersionById(id).orElseThrow(() -> new ResourceNotFoundException("Entity not found"));
+	}
+	
+	// income == null covers the unfiltered listing
+	@Transactional(readOnly = true)
+	public ClientListVersionDTO findListVersion(Double income) {
+		return income == null ? repository.findListVersion() : repository.findListVersionByIncome(income);
+	}
+	
 	@Transactional(readOnly = true)
 	public List<ClientDTO> findAll(){
-		List<Client> list = repository.findAll();
-		return list.stream().map(x -> new ClientDTO(x)).collect(Collectors.toList());
+		return repository.findAllProjected();
+	}
+	
+	@Transactional(readOnly = true)
+	public void export(ExportFormat format, OutputStream out) throws IOException {
+		Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+		JsonGenerator json = objectMapper.getFactory().createGenerator(writer)
+				.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		// lines are separated by the '\n' below, not by Jackson's default " " between root values
+		json.setRootValueSeparator(null);
+		if (format == ExportFormat.CSV) {
+			writer.write("id,name,cpf,income,birthDate,children\n");
+		}
+		try (Stream<ClientDTO> stream = repository.streamAll()) {
+			Iterator<ClientDTO> it = stream.iterator();
+			long count = 0;
+			while (it.hasNext()) {
+				ClientDTO dto = it.next();
+				if (format == ExportFormat.CSV) {
+					writeCsv(writer, dto);
+				} else {
+					json.writeObject(dto);
+					json.writeRaw('\n');
+				}
+				if (++count % EXPORT_FLUSH_INTERVAL == 0) {
+					json.flush();
+					writer.flush();
+				}
+			}
+		}
+		json.flush();
+		writer.flush();
+	}
+
+	private void writeCsv(Writer writer, ClientDTO dto) throws IOException {
+		writer.write(String.valueOf(dto.getId()));
+		writer.write(',');
+		writer.write(csvValue(dto.getName()));
+		writer.write(',');
+		writer.write(csvValue(dto.getCpf()));
+		writer.write(',');
+		writer.write(csvValue(dto.getIncome()));
+		writer.write(',');
+		writer.write(csvValue(dto.getBirthDate()));
+		writer.write(',');
+		writer.write(csvValue(dto.getChildren()));
+		writer.write('\n');
+	}
+
+	private static String csvValue(Object value) {
+		if (value == null) {
+			return "";
+		}
+		String text = value.toString();
+		if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0) {
+			return '"' + text.replace("\"", "\"\"") + '"';
+		}
+		return text;
 	}
 
 	
 	
 	@Transactional
 	public ClientDTO insert(ClientDTO dto) {
-		Client entity = dto.toEntity();
-		entity = repository.save(entity);
-		return new ClientDTO(entity);
+		try {
+			Client entity = dto.toEntity();
+			// ids are generated; a client-supplied one would make Hibernate treat the row as detached
+			entity.setId(null);
+			entity = repository.save(entity);
+			repository.flush();
+			ClientDTO result = new ClientDTO(entity);
+			eventPublisher.publishEvent(ClientChangedEvent.inserted(result));
+			return result;
+		} catch (DataIntegrityViolationException e) {
+			throw new DatabaseException("Integrity violation");
+		}
+	}
+	
+	/*
+	 * Upsert: items whose id exists are updated, everything else is inserted with a new id.
+	 * Works in chunks so the persistence context stays small and Hibernate can send the
+	 * inserts as JDBC batches (hibernate.jdbc.batch_size) on each flush.
+	 */
+	@Transactional
+	public List<ClientDTO> insertAll(List<ClientDTO> dtos) {
+		if (dtos.isEmpty() || dtos.size() > INSERT_MAX_SIZE) {
+			throw new InvalidRequestException("Batch size must be between 1 and " + INSERT_MAX_SIZE);
+		}
+		List<ClientDTO> result = new ArrayList<>(dtos.size());
+		for (int from = 0; from < dtos.size(); from += INSERT_CHUNK_SIZE) {
+			List<ClientDTO> chunk = dtos.subList(from, Math.min(from + INSERT_CHUNK_SIZE, dtos.size()));
+			List<Long> ids = chunk.stream().map(ClientDTO::getId).filter(x -> x != null).collect(Collectors.toList());
+			Map<Long, Client> existing = repository.findAllById(ids).stream()
+					.collect(Collectors.toMap(Client::getId, Function.identity()));
+			List<Client> entities = new ArrayList<>(chunk.size());
+			List<ClientDTO> before = new ArrayList<>(chunk.size());
+			for (ClientDTO dto : chunk) {
+				Client entity = dto.getId() == null ? null : existing.get(dto.getId());
+				if (entity == null) {
+					entity = dto.toEntity();
+					entity.setId(null);
+					em.persist(entity);
+					before.add(null);
+				} else {
+					before.add(new ClientDTO(entity));
+					updateData(entity, dto);
+				}
+				entities.add(entity);
+			}
+			try {
+				repository.flush();
+			} catch (DataIntegrityViolationException e) {
+				throw new DatabaseException("Integrity violation");
+			}
+			for (int i = 0; i < entities.size(); i++) {
+				ClientDTO after = new ClientDTO(entities.get(i));
+				result.add(after);
+				eventPublisher.publishEvent(before.get(i) == null ? ClientChangedEvent.inserted(after)
+						: ClientChangedEvent.updated(before.get(i), after));
+			}
+			em.clear();
+		}
+		return result;
 	}
 	
 	@Transactional
 	public ClientDTO update(Long id, ClientDTO dto) {
 		try {
 			Client entity = repository.getOne(id);
+			ClientDTO before = new ClientDTO(entity);
+			evictOnRollback(id);
 			updateData(entity, dto);
 			entity = repository.save(entity);
-			return new ClientDTO(entity);
+			repository.flush();
+			ClientDTO after = new ClientDTO(entity);
+			eventPublisher.publishEvent(ClientChangedEvent.updated(before, after));
+			return after;
 		} catch (EntityNotFoundException e) {
 			throw new ResourceNotFoundException("Id not found " + id);
+		} catch (DataIntegrityViolationException e) {
+			throw new DatabaseException("Integrity violation");
+		} catch (ObjectOptimisticLockingFailureException e) {
+			throw new VersionConflictException("Client " + id + " was modified concurrently");
+		}
+	}
+	
+	/*
+	 * Partial update by one UPDATE of the non-null fields of dto, conditioned on the
+	 * version: WHERE id = ? AND version = ?. Nothing is locked ahead of it. The prior
+	 * state for the ClientChangedEvent is read first, normally from the second-level
+	 * cache; the version condition guarantees it is the state the UPDATE replaced, and
+	 * the new state is that plus dto at version + 1.
+	 * A non-null expectedVersion (If-Match) must equal the stored version, else 412.
+	 * Without one, a write that got in between is retried up to PATCH_ATTEMPTS times.
+	 * Returns the new version.
+	 */
+	@Transactional
+	public long patch(Long id, Long expectedVersion, ClientDTO dto) {
+		if (dto.getName() == null && dto.getCpf() == null && dto.getIncome() == null && dto.getBirthDate() == null
+				&& dto.getChildren() == null) {
+			throw new InvalidRequestException("No fields to update");
+		}
+		for (int attempt = 1;; attempt++) {
+			ClientDTO before = new ClientDTO(
+					repository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Id not found " + id)));
+			if (expectedVersion != null && !expectedVersion.equals(before.getVersion())) {
+				throw new VersionConflictException(
+						"Expected version " + expectedVersion + " but was " + before.getVersion());
+			}
+			int updated;
+			try {
+				updated = repository.patch(id, before.getVersion(), dto);
+			} catch (DataIntegrityViolationException e) {
+				throw new DatabaseException("Integrity violation");
+			}
+			if (updated == 1) {
+				em.getEntityManagerFactory().getCache().evict(Client.class, id);
+				evictOnRollback(id);
+				long version = before.getVersion() + 1;
+				eventPublisher.publishEvent(ClientChangedEvent.updated(before, patched(before, dto, version)));
+				return version;
+			}
+			// deleted or written since the read; either way the cached state is out of date
+			em.getEntityManagerFactory().getCache().evict(Client.class, id);
+			if (expectedVersion != null || attempt == PATCH_ATTEMPTS) {
+				Long current = repository.findVersionById(id)
+						.orElseThrow(() -> new ResourceNotFoundException("Id not found " + id)).getVersion();
+				throw new VersionConflictException("Expected version " + before.getVersion() + " but was " + current);
+			}
 		}
 	}
 	
+	private static ClientDTO patched(ClientDTO before, ClientDTO changes, long version) {
+		ClientDTO after = new ClientDTO(before.getId(),
+				changes.getName() != null ? changes.getName() : before.getName(),
+				changes.getCpf() != null ? changes.getCpf() : before.getCpf(),
+				changes.getIncome() != null ? changes.getIncome() : before.getIncome(),
+				changes.getBirthDate() != null ? changes.getBirthDate() : before.getBirthDate(),
+				changes.getChildren() != null ? changes.getChildren() : before.getChildren());
+		after.setVersion(version);
+		return after;
+	}
+	
+	/*
+	 * The entity is loaded first so the ClientChangedEvent carries the deleted state;
+	 * deleteById then removes that same instance, with a version check.
+	 */
+	@Transactional
 	public void delete(Long id) {
 		try {
+			Client entity = repository.findById(id)
+					.orElseThrow(() -> new ResourceNotFoundException("Id not found " + id));
+			ClientDTO before = new ClientDTO(entity);
+			evictOnRollback(id);
 			repository.deleteById(id);
+			repository.flush();
+			eventPublisher.publishEvent(ClientChangedEvent.deleted(before));
 		} catch (EmptyResultDataAccessException e) {
 			throw new ResourceNotFoundException("Id not found " + id);
 		} catch (DataIntegrityViolationException e) {
 			throw new DatabaseException("Integrity violation");
+		} catch (ObjectOptimisticLockingFailureException e) {
+			throw new VersionConflictException("Client " + id + " was modified concurrently");
+		}
+	}
+
+	/*
+	 * Bulk variants: single DELETE/UPDATE statements (ids in chunks of BULK_CHUNK_SIZE)
+	 * that report how many rows they touched. Unknown ids are simply not counted.
+	 * deleteAll locks and reads each chunk first so it can publish one delete event per
+	 * client; the range statements publish a bulk event.
+	 */
+	@Transactional
+	public long deleteAll(List<Long> ids) {
+		if (ids.isEmpty() || ids.size() > BULK_MAX_SIZE) {
+			throw new InvalidRequestException("Number of ids must be between 1 and " + BULK_MAX_SIZE);
+		}
+		long deleted = 0;
+		List<ClientDTO> before = new ArrayList<>();
+		try {
+			for (int from = 0; from < ids.size(); from += BULK_CHUNK_SIZE) {
+				List<Long> chunk = ids.subList(from, Math.min(from + BULK_CHUNK_SIZE, ids.size()));
+				repository.findAllByIdForUpdate(chunk).forEach(x -> before.add(new ClientDTO(x)));
+				deleted += repository.deleteByIdIn(chunk);
+			}
+		} catch (DataIntegrityViolationException e) {
+			throw new DatabaseException("Integrity violation");
+		}
+		evictCachedClients();
+		before.forEach(x -> eventPublisher.publishEvent(ClientChangedEvent.deleted(x)));
+		return deleted;
+	}
+	
+	@Transactional
+	public long deleteByIncome(Double minIncome, Double maxIncome) {
+		if (minIncome == null && maxIncome == null) {
+			throw new InvalidRequestException("At least one of minIncome and maxIncome is required");
+		}
+		long deleted;
+		try {
+			deleted = repository.deleteByIncomeBetween(lowerBound(minIncome), upperBound(maxIncome));
+		} catch (DataIntegrityViolationException e) {
+			throw new DatabaseException("Integrity violation");
 		}
+		evictCachedClients();
+		publishBulkChange(deleted);
+		return deleted;
+	}
+	
+	@Transactional
+	public long adjustIncome(Double factor, Double minIncome, Double maxIncome) {
+		if (factor == null || !(factor > 0)) {
+			throw new InvalidRequestException("factor must be greater than zero");
+		}
+		long updated = repository.adjustIncomeBetween(factor, lowerBound(minIncome), upperBound(maxIncome));
+		evictCachedClients();
+		publishBulkChange(updated);
+		return updated;
+	}
+	
+	// Hibernate only clears the L2 region when the transaction completes; reads later in
+	// the same transaction would still see the cached pre-statement state (see also patch)
+	private void evictCachedClients() {
+		em.getEntityManagerFactory().getCache().evict(Client.class);
+	}
+	
+	/*
+	 * A write that rolls back leaves its L2 entry soft-locked, and readers skip the cache
+	 * for that client until the lock times out. Evicting it after the rollback lets the
+	 * next read repopulate it.
+	 */
+	private void evictOnRollback(Long id) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				if (status == STATUS_ROLLED_BACK) {
+					em.getEntityManagerFactory().getCache().evict(Client.class, id);
+				}
+			}
+		});
+	}
+	
+	private void publishBulkChange(long affectedRows) {
+		if (affectedRows > 0) {
+			eventPublisher.publishEvent(ClientChangedEvent.bulk());
+		}
+	}
+	
+	private static double lowerBound(Double minIncome) {
+		return minIncome == null ? -Double.MAX_VALUE : minIncome;
+	}
+	
+	private static double upperBound(Double maxIncome) {
+		return maxIncome == null ? Double.MAX_VALUE : maxIncome;
 	}
 
 	public void updateData(Client entity, ClientDTO dto) {
@@ -0,0 +1,35 @@
+package com.iftm.client.services;
+
+import com.iftm.client.services.exceptions.InvalidRequestException;
+
+/*
+ * How paged listings work out totalElements: EXACT runs a COUNT per request, NONE
+ * returns a Slice (hasNext only, no count) and APPROXIMATE fills the Page from the
+ * periodically refreshed counts in ClientCountService.
+ */
+public enum CountMode {
+
+	EXACT("exact"),
+	NONE("none"),
+	APPROXIMATE("approx");
+
+	private final String value;
+
+	private CountMode(String value) {
+		this.value = value;
+	}
+
+	public String getValue() {
+		return value;
+	}
+
+	public static CountMode of(String count) {
+		for (CountMode mode : values()) {
+			if (mode.value.equalsIgnoreCase(count)) {
+				return mode;
+			}
+		}
+		throw new InvalidRequestException("Unsupported count mode " + count);
+	}
+
+}
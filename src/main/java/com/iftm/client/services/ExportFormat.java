@@ -0,0 +1,37 @@
+package com.iftm.client.services;
+
+import org.springframework.http.MediaType;
+
+import com.iftm.client.services.exceptions.InvalidRequestException;
+
+public enum ExportFormat {
+
+	NDJSON(MediaType.valueOf("application/x-ndjson"), "ndjson"),
+	CSV(MediaType.valueOf("text/csv"), "csv");
+
+	private final MediaType mediaType;
+	private final String extension;
+
+	private ExportFormat(MediaType mediaType, String extension) {
+		this.mediaType = mediaType;
+		this.extension = extension;
+	}
+
+	public MediaType getMediaType() {
+		return mediaType;
+	}
+
+	public String getExtension() {
+		return extension;
+	}
+
+	public static ExportFormat of(String format) {
+		for (ExportFormat value : values()) {
+			if (value.extension.equalsIgnoreCase(format)) {
+				return value;
+			}
+		}
+		throw new InvalidRequestException("Unsupported export format " + format);
+	}
+
+}
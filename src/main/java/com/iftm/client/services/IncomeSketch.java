@@ -0,0 +1,119 @@
+package com.iftm.client.services;
+
+/*
+ * Log-bucketed income histogram in the DDSketch layout: bucket i counts the magnitudes
+ * in (GAMMA^(i-1), GAMMA^i], so a quantile read from it is within RELATIVE_ACCURACY of
+ * the exact one. Unlike a sampling sketch, values can be removed again, and two
+ * sketches merge by adding their buckets. Fixed size, so every read is O(1) in the
+ * number of clients.
+ *
+ * Magnitudes from MIN_MAGNITUDE (one cent) to 10^12 are covered, for positive and
+ * negative values alike. Values closer to zero than a cent are counted as 0.0, larger
+ * ones share the last bucket.
+ */
+public class IncomeSketch {
+
+	public static final double RELATIVE_ACCURACY = 0.01;
+	public static final double MIN_MAGNITUDE = 0.01;
+
+	private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+	private static final double LOG_GAMMA = Math.log(GAMMA);
+	// bucket index of MIN_MAGNITUDE, subtracted so the first bucket is 0
+	private static final int OFFSET = (int) Math.ceil(Math.log(MIN_MAGNITUDE) / LOG_GAMMA);
+	private static final int BUCKETS = (int) Math.ceil(Math.log(1e12) / LOG_GAMMA) - OFFSET + 1;
+
+	private final long[] positive = new long[BUCKETS];
+	// allocated with the first negative value, incomes rarely are
+	private long[] negative;
+	private long zero;
+	private long count;
+
+	public void add(double value) {
+		if (Math.abs(value) < MIN_MAGNITUDE) {
+			zero++;
+		} else if (value > 0) {
+			positive[index(value)]++;
+		} else {
+			if (negative == null) {
+				negative = new long[BUCKETS];
+			}
+			negative[index(-value)]++;
+		}
+		count++;
+	}
+
+	public void remove(double value) {
+		if (Math.abs(value) < MIN_MAGNITUDE) {
+			if (zero > 0) {
+				zero--;
+				count--;
+			}
+			return;
+		}
+		long[] counts = value > 0 ? positive : negative;
+		int index = index(Math.abs(value));
+		if (counts != null && counts[index] > 0) {
+			counts[index]--;
+			count--;
+		}
+	}
+
+	public void merge(IncomeSketch other) {
+		for (int i = 0; i < BUCKETS; i++) {
+			positive[i] += other.positive[i];
+		}
+		if (other.negative != null) {
+			if (negative == null) {
+				negative = new long[BUCKETS];
+			}
+			for (int i = 0; i < BUCKETS; i++) {
+				negative[i] += other.negative[i];
+			}
+		}
+		zero += other.zero;
+		count += other.count;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	// q in [0, 1]; null when empty. Ranks run from the most negative value up.
+	public Double quantile(double q) {
+		if (count == 0) {
+			return null;
+		}
+		long rank = (long) Math.floor(q * (count - 1));
+		long seen = 0;
+		if (negative != null) {
+			for (int i = BUCKETS - 1; i >= 0; i--) {
+				seen += negative[i];
+				if (seen > rank) {
+					return -value(i);
+				}
+			}
+		}
+		seen += zero;
+		if (seen > rank) {
+			return 0.0;
+		}
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += positive[i];
+			if (seen > rank) {
+				return value(i);
+			}
+		}
+		return value(BUCKETS - 1);
+	}
+
+	// magnitude >= MIN_MAGNITUDE
+	private static int index(double magnitude) {
+		return Math.max(0, Math.min((int) Math.ceil(Math.log(magnitude) / LOG_GAMMA) - OFFSET, BUCKETS - 1));
+	}
+
+	// the point of bucket i with the same relative distance to both of its bounds
+	private static double value(int index) {
+		return 2 * Math.pow(GAMMA, index + OFFSET) / (GAMMA + 1);
+	}
+
+}
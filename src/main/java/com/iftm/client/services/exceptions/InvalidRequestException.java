@@ -0,0 +1,10 @@
+package com.iftm.client.services.exceptions;
+
+public class InvalidRequestException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+	
+	public InvalidRequestException(String msg) {
+		super(msg);
+	}
+
+}
@@ -0,0 +1,9 @@
+-- H2 does not scan an ascending index backwards: DESC keyset pages (and DESC sorts)
+-- need an index in that direction to start from the cursor instead of scanning from
+-- the top and sorting
+CREATE INDEX idx_client_id_desc ON tb_client (id DESC);
+CREATE INDEX idx_client_name_id_desc ON tb_client (name DESC, id DESC);
+CREATE INDEX idx_client_income_desc ON tb_client (income DESC, id DESC);
+CREATE INDEX idx_client_children_desc ON tb_client (children DESC, id DESC);
+CREATE INDEX idx_client_birth_date_desc ON tb_client (birth_date DESC, id DESC);
+CREATE INDEX idx_client_cpf_id_desc ON tb_client (cpf DESC, id DESC);
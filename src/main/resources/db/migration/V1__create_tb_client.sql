@@ -0,0 +1,11 @@
+CREATE SEQUENCE seq_client START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE tb_client (
+    id BIGINT NOT NULL,
+    name VARCHAR(255),
+    cpf VARCHAR(255),
+    income DOUBLE,
+    birth_date TIMESTAMP,
+    children INTEGER,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,16 @@
+-- findByIncome: income >= :income
+CREATE INDEX idx_client_income ON tb_client (income);
+
+-- findByFirstnameIgnoreCase: H2 has no expression indexes, so UPPER(name) is kept
+-- in a computed column that the query compares against
+ALTER TABLE tb_client ADD COLUMN name_upper VARCHAR(255) AS UPPER(name);
+CREATE INDEX idx_client_name_upper ON tb_client (name_upper);
+
+-- default ordering of the paged and keyset listings
+CREATE INDEX idx_client_name_id ON tb_client (name, id);
+
+CREATE UNIQUE INDEX uk_client_cpf ON tb_client (cpf);
+
+-- findByChildrenNotLike0: H2 has no partial indexes (WHERE children > 0), so a
+-- plain index serves the children > 0 range
+CREATE INDEX idx_client_children ON tb_client (children);
@@ -0,0 +1,2 @@
+-- optimistic locking (@Version on Client); existing rows start at version 0
+ALTER TABLE tb_client ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,3 @@
+-- Last-Modified for conditional GETs; the index serves MAX(updated_at) for list validators
+ALTER TABLE tb_client ADD COLUMN updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL;
+CREATE INDEX idx_client_updated_at ON tb_client (updated_at);
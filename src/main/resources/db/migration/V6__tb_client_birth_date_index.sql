@@ -0,0 +1,2 @@
+-- birth-date ranges in /clients/search
+CREATE INDEX idx_client_birth_date ON tb_client (birth_date);
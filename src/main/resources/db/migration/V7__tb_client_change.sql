@@ -0,0 +1,16 @@
+-- change feed (transactional outbox): one row per committed client write, read in id order
+CREATE SEQUENCE seq_client_change START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE tb_client_change (
+    id BIGINT NOT NULL,
+    client_id BIGINT,
+    type VARCHAR(16) NOT NULL,
+    client_version BIGINT,
+    payload VARCHAR(4000),
+    created_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- retention deletes by age, compaction looks for later changes of the same client
+CREATE INDEX idx_client_change_created_at ON tb_client_change (created_at);
+CREATE INDEX idx_client_change_client_id ON tb_client_change (client_id, id);
@@ -0,0 +1,12 @@
+-- keyset pages seek on (column, id): the single-column indexes are widened with id
+-- so every seekable ordering is a range scan (name has had (name, id) since V3)
+DROP INDEX idx_client_income;
+CREATE INDEX idx_client_income ON tb_client (income, id);
+
+DROP INDEX idx_client_children;
+CREATE INDEX idx_client_children ON tb_client (children, id);
+
+DROP INDEX idx_client_birth_date;
+CREATE INDEX idx_client_birth_date ON tb_client (birth_date, id);
+
+CREATE INDEX idx_client_cpf_id ON tb_client (cpf, id);
@@ -0,0 +1,3 @@
+-- change ids are handed out one at a time: a block reserved by one writer would let it
+-- commit ids far below those other writers already made visible
+ALTER SEQUENCE seq_client_change INCREMENT BY 1;
@@ -0,0 +1,85 @@
+package com.iftm.client.tests.integration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.entities.Client;
+import com.iftm.client.services.ClientBatchLoader;
+import com.iftm.client.services.ClientService;
+import com.iftm.client.services.exceptions.ResourceNotFoundException;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// a window long enough for concurrent lookups to land in one batch
+@SpringBootTest(properties = { "client.batch.enabled=true", "client.batch.window=200ms" })
+public class ClientBatchLoaderTests {
+
+	@Autowired
+	private ClientBatchLoader batchLoader;
+
+	@Autowired
+	private ClientService service;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	public void loadShouldCoalesceConcurrentLookups() throws Exception {
+		DistributionSummary batchSize = meterRegistry.get("client.batch.size").summary();
+		long batchesBefore = batchSize.count();
+		double idsBefore = batchSize.totalAmount();
+		ExecutorService executor = Executors.newFixedThreadPool(20);
+		try {
+			List<Future<ClientDTO>> results = new ArrayList<>();
+			for (int i = 0; i < 20; i++) {
+				long id = 1 + i % 5;
+				results.add(executor.submit(() -> batchLoader.load(id)));
+			}
+			for (int i = 0; i < 20; i++) {
+				Assertions.assertEquals(1 + i % 5, results.get(i).get().getId());
+			}
+		} finally {
+			executor.shutdown();
+		}
+		Assertions.assertTrue(batchSize.count() - batchesBefore < 20);
+		Assertions.assertTrue(batchSize.totalAmount() - idsBefore < 20);
+	}
+
+	@Test
+	public void loadShouldThrowResourceNotFoundExceptionWhenIdDoesNotExist() {
+		Assertions.assertEquals("Conceição Evaristo", batchLoader.load(1L).getName());
+		Assertions.assertThrows(ResourceNotFoundException.class, () -> batchLoader.load(1000L));
+	}
+
+	@Test
+	public void loadShouldServeCachedClientsFromTheSecondLevelCache() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		service.findById(3L);
+		long hitsBefore = statistics.getDomainDataRegionStatistics(Client.CACHE_REGION).getHitCount();
+		long statementsBefore = statistics.getPrepareStatementCount();
+
+		Assertions.assertEquals(3L, batchLoader.load(3L).getId());
+
+		Assertions.assertEquals(hitsBefore + 1, statistics.getDomainDataRegionStatistics(Client.CACHE_REGION)
+				.getHitCount());
+		Assertions.assertEquals(statementsBefore, statistics.getPrepareStatementCount());
+	}
+
+}
@@ -0,0 +1,133 @@
+package com.iftm.client.tests.integration;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.iftm.client.dto.ClientChangeDTO;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.CursorPageDTO;
+import com.iftm.client.entities.ClientChange;
+import com.iftm.client.entities.ClientChangeType;
+import com.iftm.client.repositories.ClientChangeRepository;
+import com.iftm.client.services.ClientChangeFeed;
+import com.iftm.client.services.ClientService;
+import com.iftm.client.tests.factory.ClientFactory;
+
+// no settle time and no compaction age, so the feed shows each change as soon as it commits
+@SpringBootTest(properties = { "client.changes.settle-time=0s", "client.changes.compaction-age=0s" })
+public class ClientChangeFeedTests {
+
+	@Autowired
+	private ClientService service;
+
+	@Autowired
+	private ClientChangeFeed changeFeed;
+
+	@Autowired
+	private ClientChangeRepository changeRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private ClientDTO clientDTO;
+
+	@BeforeEach
+	void setUp() {
+		clientDTO = ClientFactory.createClientDTO();
+		clientDTO.setId(null);
+	}
+
+	@Test
+	public void findChangesShouldReturnCommittedWritesInOrderAfterCursor() {
+		String cursor = null;
+		CursorPageDTO<ClientChangeDTO> page;
+		do {
+			page = service.findChanges(cursor, 1000);
+			cursor = page.getNextCursor();
+		} while (page.getHasNext());
+		ClientDTO inserted = service.insert(clientDTO);
+		ClientDTO changes = new ClientDTO();
+		changes.setChildren(7);
+		service.patch(inserted.getId(), null, changes);
+		service.delete(inserted.getId());
+
+		CursorPageDTO<ClientChangeDTO> first = service.findChanges(cursor, 2);
+		CursorPageDTO<ClientChangeDTO> second = service.findChanges(first.getNextCursor(), 2);
+
+		Assertions.assertTrue(first.getHasNext());
+		Assertions.assertEquals(List.of(ClientChangeType.INSERT, ClientChangeType.UPDATE),
+				first.getContent().stream().map(ClientChangeDTO::getType).collect(Collectors.toList()));
+		Assertions.assertTrue(first.getContent().get(1).getClient().contains("\"children\":7"));
+		Assertions.assertEquals(1L, first.getContent().get(1).getVersion());
+		Assertions.assertEquals(ClientChangeType.DELETE, second.getContent().get(0).getType());
+		Assertions.assertEquals(inserted.getId(), second.getContent().get(0).getClientId());
+		Assertions.assertFalse(second.getHasNext());
+		Assertions.assertEquals(second.getNextCursor(), service.findChanges(second.getNextCursor(), 2).getNextCursor());
+	}
+
+	@Test
+	public void findChangesShouldNotPassALowerIdThatIsStillSettling() {
+		String cursor = null;
+		CursorPageDTO<ClientChangeDTO> page;
+		do {
+			page = service.findChanges(cursor, 1000);
+			cursor = page.getNextCursor();
+		} while (page.getHasNext());
+		Instant now = Instant.now();
+		ClientChange young = changeRepository.save(new ClientChange(null, ClientChangeType.RESYNC, null, null,
+				now.plus(Duration.ofHours(1))));
+		ClientChange settled = changeRepository.save(new ClientChange(null, ClientChangeType.RESYNC, null, null,
+				now.minus(Duration.ofHours(1))));
+		try {
+			CursorPageDTO<ClientChangeDTO> blocked = service.findChanges(cursor, 1000);
+			jdbcTemplate.update("UPDATE tb_client_change SET created_at = ? WHERE id = ?",
+					Timestamp.from(now.minus(Duration.ofHours(1))), young.getId());
+			CursorPageDTO<ClientChangeDTO> released = service.findChanges(cursor, 1000);
+
+			Assertions.assertTrue(young.getId() < settled.getId());
+			Assertions.assertTrue(blocked.getContent().isEmpty());
+			Assertions.assertEquals(cursor, blocked.getNextCursor());
+			Assertions.assertEquals(List.of(young.getId(), settled.getId()),
+					released.getContent().stream().map(ClientChangeDTO::getId).collect(Collectors.toList()));
+		} finally {
+			changeRepository.deleteById(young.getId());
+			changeRepository.deleteById(settled.getId());
+		}
+	}
+
+	@Test
+	public void compactShouldKeepOnlyTheLatestChangeOfEachClient() {
+		ClientDTO inserted = service.insert(clientDTO);
+		service.delete(inserted.getId());
+
+		changeFeed.compact();
+
+		List<ClientChangeDTO> changes = service.findChanges(null, 1000).getContent().stream()
+				.filter(x -> inserted.getId().equals(x.getClientId())).collect(Collectors.toList());
+		Assertions.assertEquals(1, changes.size());
+		Assertions.assertEquals(ClientChangeType.DELETE, changes.get(0).getType());
+	}
+
+	@Test
+	public void changeIdsShouldComeFromTheSequenceOneAtATime() {
+		ClientDTO inserted = service.insert(clientDTO);
+		service.delete(inserted.getId());
+
+		Long lastId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM tb_client_change", Long.class);
+		Long sequence = jdbcTemplate.queryForObject(
+				"SELECT CURRENT_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'SEQ_CLIENT_CHANGE'",
+				Long.class);
+		Assertions.assertEquals(lastId, sequence);
+	}
+
+}
@@ -0,0 +1,98 @@
+package com.iftm.client.tests.integration;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.iftm.client.entities.Client;
+
+// the statements each count mode sends, counted with Hibernate statistics
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ClientListingQueryTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private SessionFactory sessionFactory;
+
+	private Statistics statistics;
+
+	// the page queries are cacheable, so each test starts from an empty query cache
+	@BeforeEach
+	void setUp() {
+		sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+		sessionFactory.getCache().evictQueryRegions();
+		statistics = sessionFactory.getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	public void findAllShouldRunNoCountWhenCountIsNone() throws Exception {
+		mockMvc.perform(get("/clients").param("count", "none")).andExpect(status().isOk());
+
+		Assertions.assertFalse(anyCountQuery());
+		Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	public void findByIncomeShouldRunNoCountWhenCountIsNone() throws Exception {
+		mockMvc.perform(get("/clients/find-by-income").param("income", "4000").param("count", "none"))
+				.andExpect(status().isOk());
+
+		Assertions.assertFalse(anyCountQuery());
+		Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	public void findAllShouldRunOneCountWhenCountIsExact() throws Exception {
+		mockMvc.perform(get("/clients")).andExpect(status().isOk());
+
+		Assertions.assertTrue(anyCountQuery());
+		Assertions.assertEquals(2, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	public void findAllShouldServeRepeatedExactPagesFromTheQueryCache() throws Exception {
+		mockMvc.perform(get("/clients").param("orderBy", "id")).andExpect(status().isOk());
+		statistics.clear();
+
+		mockMvc.perform(get("/clients").param("orderBy", "id")).andExpect(status().isOk());
+
+		Assertions.assertEquals(1, statistics.getQueryRegionStatistics(Client.QUERY_CACHE_REGION).getHitCount());
+		Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+		Assertions.assertTrue(anyCountQuery());
+	}
+
+	@Test
+	public void findByIncomeShouldServeRepeatedExactPagesFromTheQueryCache() throws Exception {
+		mockMvc.perform(get("/clients/find-by-income").param("income", "4000")).andExpect(status().isOk());
+		statistics.clear();
+
+		mockMvc.perform(get("/clients/find-by-income").param("income", "4000")).andExpect(status().isOk());
+
+		Assertions.assertEquals(1, statistics.getQueryRegionStatistics(Client.QUERY_CACHE_REGION).getHitCount());
+		Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	private boolean anyCountQuery() {
+		return Arrays.stream(statistics.getQueries()).anyMatch(x -> x.toUpperCase().contains("COUNT("));
+	}
+
+}
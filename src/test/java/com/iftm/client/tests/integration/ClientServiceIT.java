@@ -1,7 +1,18 @@
 package com.iftm.client.tests.integration;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -10,21 +21,70 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.iftm.client.dto.CacheRegionStatsDTO;
 import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.ClientFilterDTO;
+import com.iftm.client.dto.ClientListVersionDTO;
+import com.iftm.client.dto.ClientLookupDTO;
+import com.iftm.client.dto.ClientNameMatchDTO;
+import com.iftm.client.dto.ClientVersionDTO;
+import com.iftm.client.dto.CursorPageDTO;
+import com.iftm.client.dto.IncomeBucketDTO;
+import com.iftm.client.dto.IncomeStatsDTO;
 import com.iftm.client.entities.Client;
 import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.services.CacheStatsService;
+import com.iftm.client.services.ClientAggregates;
+import com.iftm.client.services.ClientChangedEvent;
+import com.iftm.client.services.ClientCountService;
+import com.iftm.client.services.ClientDataGenerator;
+import com.iftm.client.services.ClientNameIndex;
 import com.iftm.client.services.ClientService;
+import com.iftm.client.services.CountMode;
+import com.iftm.client.services.ExportFormat;
+import com.iftm.client.services.IncomeSketch;
+import com.iftm.client.services.exceptions.DatabaseException;
+import com.iftm.client.services.exceptions.InvalidRequestException;
 import com.iftm.client.services.exceptions.ResourceNotFoundException;
+import com.iftm.client.services.exceptions.VersionConflictException;
 import com.iftm.client.tests.factory.ClientFactory;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @SpringBootTest
 @Transactional
 public class ClientServiceIT {
 
 	@Autowired
 	private ClientService service;
+	@Autowired
+	private CacheStatsService cacheStatsService;
+	@Autowired
+	private ClientCountService countService;
+	@Autowired
+	private ClientNameIndex nameIndex;
+	@Autowired
+	private ClientAggregates aggregates;
+	@Autowired
+	private ClientDataGenerator dataGenerator;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private MeterRegistry meterRegistry;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@PersistenceContext
+	private EntityManager entityManager;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
 	private ClientDTO clientDTO;
 	private Client client;
 	private long existingId;
@@ -117,4 +177,625 @@ public class ClientServiceIT {
 
 	}
 
+	@Test
+	public void findByIncomeSeekShouldFollowCursorUntilLastPage() {
+		Double income = 4000.00;
+		CursorPageDTO<ClientDTO> first = service.findByIncomeSeek(income, null, 3, Direction.ASC, "birthDate");
+		CursorPageDTO<ClientDTO> second = service.findByIncomeSeek(income, first.getNextCursor(), 3, Direction.ASC,
+				"birthDate");
+
+		Assertions.assertTrue(first.getHasNext());
+		Assertions.assertFalse(second.getHasNext());
+		Assertions.assertNull(second.getNextCursor());
+		Assertions.assertEquals(countClientByIncome, first.getContent().size() + second.getContent().size());
+	}
+
+	@Test
+	public void findAllSeekShouldRejectPageSizesOutOfRange() {
+		Assertions.assertThrows(InvalidRequestException.class,
+				() -> service.findAllSeek(null, 0, Direction.ASC, "name"));
+		Assertions.assertThrows(InvalidRequestException.class,
+				() -> service.findAllSeek(null, Integer.MAX_VALUE, Direction.ASC, "name"));
+		Assertions.assertThrows(InvalidRequestException.class,
+				() -> service.findByIncomeSeek(4000.0, null, 1001, Direction.ASC, "name"));
+		Assertions.assertEquals(countTotalClients,
+				service.findAllSeek(null, 1000, Direction.ASC, "name").getContent().size());
+	}
+
+	@Test
+	public void findAllSeekShouldFollowCursorPastClientsWithoutIncome() {
+		jdbcTemplate.update("UPDATE tb_client SET income = NULL WHERE id IN (2, 5, 9)");
+		List<Long> ids = new ArrayList<>();
+		String cursor = null;
+		do {
+			CursorPageDTO<ClientDTO> page = service.findAllSeek(cursor, 2, Direction.ASC, "income");
+			page.getContent().forEach(x -> ids.add(x.getId()));
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+
+		Assertions.assertEquals(countTotalClients, ids.stream().distinct().count());
+		Assertions.assertEquals(List.of(2L, 5L, 9L), ids.subList(0, 3));
+	}
+
+	@Test
+	public void exportShouldWriteOneLinePerClient() throws IOException {
+		ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+		ByteArrayOutputStream csv = new ByteArrayOutputStream();
+		service.export(ExportFormat.NDJSON, ndjson);
+		service.export(ExportFormat.CSV, csv);
+
+		String[] lines = ndjson.toString(StandardCharsets.UTF_8).split("\n");
+		Assertions.assertEquals(countTotalClients, lines.length);
+		Assertions.assertTrue(lines[0].startsWith("{\"id\":1,"));
+		Assertions.assertTrue(List.of(lines).stream().allMatch(x -> x.startsWith("{")));
+		Assertions.assertEquals(countTotalClients + 1, csv.toString(StandardCharsets.UTF_8).split("\n").length);
+	}
+
+	@Test
+	public void insertAllShouldInsertNewClientsAndUpdateExistingOnes() {
+		List<ClientDTO> batch = new ArrayList<>();
+		for (int i = 0; i < 120; i++) {
+			ClientDTO dto = ClientFactory.createClientDTO(null);
+			dto.setCpf(String.format("%011d", i));
+			batch.add(dto);
+		}
+		ClientDTO existing = ClientFactory.createClientDTO(existingId);
+		existing.setName("Nome Atualizado");
+		batch.add(existing);
+
+		List<ClientDTO> result = service.insertAll(batch);
+
+		Assertions.assertEquals(batch.size(), result.size());
+		Assertions.assertTrue(result.subList(0, 120).stream().allMatch(x -> x.getId() != null));
+		Assertions.assertEquals(countTotalClients + 120, service.findAll().size());
+		Assertions.assertEquals("Nome Atualizado", service.findById(existingId).getName());
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void findByIdShouldHitSecondLevelCacheAndSeeUpdates() {
+		// rolled-back updates in earlier tests leave the versioned entry soft-locked
+		entityManagerFactory.getCache().evict(Client.class, existingId);
+		long hitsBefore = clientRegionStats().getHitCount();
+		ClientDTO original = service.findById(existingId);
+		service.findById(existingId);
+		Assertions.assertTrue(clientRegionStats().getHitCount() > hitsBefore);
+		Assertions.assertNotNull(clientRegionStats().getEvictionCount());
+
+		ClientDTO changed = service.findById(existingId);
+		changed.setName("Nome em Cache");
+		try {
+			service.update(existingId, changed);
+			Assertions.assertEquals("Nome em Cache", service.findById(existingId).getName());
+		} finally {
+			service.update(existingId, original);
+		}
+	}
+
+	private CacheRegionStatsDTO clientRegionStats() {
+		return cacheStatsService.findAll().stream().filter(x -> x.getRegion().equals(Client.CACHE_REGION)).findFirst()
+				.get();
+	}
+
+	@Test
+	public void insertShouldThrowDatabaseExceptionWhenCpfAlreadyExists() {
+		clientDTO.setId(null);
+		clientDTO.setCpf(service.findById(existingId).getCpf());
+
+		Assertions.assertThrows(DatabaseException.class, () -> {
+			service.insert(clientDTO);
+		});
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void generateShouldLoadClientsWithValidCpfs() {
+		String indexes = "SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_NAME = 'TB_CLIENT' ORDER BY 1";
+		List<String> indexesBefore = jdbcTemplate.queryForList(indexes, String.class);
+		try {
+			dataGenerator.generate(5000, 7L);
+
+			Assertions.assertEquals(indexesBefore, jdbcTemplate.queryForList(indexes, String.class));
+
+			List<ClientDTO> result = service.findAll();
+			Assertions.assertEquals(countTotalClients + 5000, result.size());
+			Assertions.assertTrue(result.stream().skip(countTotalClients).allMatch(x -> isValidCpf(x.getCpf())));
+			clientDTO.setId(null);
+			service.insert(clientDTO);
+			Assertions.assertEquals(countTotalClients + 5001, service.findAll().size());
+		} finally {
+			jdbcTemplate.update("DELETE FROM tb_client WHERE id > ?", countTotalClients);
+		}
+	}
+
+	// outside the test transaction, so findById begins and commits its own
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void findByIdShouldRecordServiceTransactionAndRepositoryTimers() {
+		long serviceCalls = meterRegistry.timer("client.service", "method", "findById", "exception", "none").count();
+		long transactions = meterRegistry
+				.timer("client.transaction", "method", "ClientService.findById", "outcome", "committed").count();
+		long repositoryCalls = meterRegistry.timer("client.repository", "method", "findById", "exception", "none").count();
+
+		service.findById(existingId);
+
+		Assertions.assertEquals(serviceCalls + 1, meterRegistry.get("client.service").tag("method", "findById")
+				.tag("exception", "none").timer().count());
+		Assertions.assertEquals(transactions + 1, meterRegistry.get("client.transaction")
+				.tag("method", "ClientService.findById").tag("outcome", "committed").timer().count());
+		Assertions.assertEquals(repositoryCalls + 1, meterRegistry.get("client.repository").tag("method", "findById")
+				.tag("exception", "none").timer().count());
+		Assertions.assertTrue(meterRegistry.get("hikaricp.connections.active").gauge() != null);
+		Assertions.assertTrue(meterRegistry.get("hibernate.query.executions").functionCounter() != null);
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void failedCallsShouldBeTimedWithTheirExceptionAndRollback() {
+		long serviceCalls = meterRegistry
+				.timer("client.service", "method", "findById", "exception", "ResourceNotFoundException").count();
+		long transactions = meterRegistry
+				.timer("client.transaction", "method", "ClientService.findById", "outcome", "rolled_back").count();
+
+		Assertions.assertThrows(ResourceNotFoundException.class, () -> service.findById(nonExistingId));
+
+		Assertions.assertEquals(serviceCalls + 1, meterRegistry.get("client.service").tag("method", "findById")
+				.tag("exception", "ResourceNotFoundException").timer().count());
+		Assertions.assertEquals(transactions + 1, meterRegistry.get("client.transaction")
+				.tag("method", "ClientService.findById").tag("outcome", "rolled_back").timer().count());
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void patchShouldUpdateOnlyGivenFieldsAndBumpVersion() {
+		ClientDTO before = service.findById(existingId);
+		ClientDTO changes = new ClientDTO();
+		changes.setIncome(9999.0);
+
+		long version = service.patch(existingId, before.getVersion(), changes);
+		try {
+			ClientDTO after = service.findById(existingId);
+			Assertions.assertEquals(before.getVersion() + 1, version);
+			Assertions.assertEquals(version, after.getVersion());
+			Assertions.assertEquals(9999.0, after.getIncome());
+			Assertions.assertEquals(before.getName(), after.getName());
+			Assertions.assertEquals(before.getCpf(), after.getCpf());
+		} finally {
+			changes.setIncome(before.getIncome());
+			service.patch(existingId, null, changes);
+		}
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void patchShouldNotLoadOrLockTheRowWhenClientIsCached() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		ClientDTO before = service.findById(existingId);
+		long loadsBefore = statistics.getEntityLoadCount();
+		long hitsBefore = statistics.getDomainDataRegionStatistics(Client.CACHE_REGION).getHitCount();
+		ClientDTO changes = new ClientDTO();
+		changes.setIncome(8888.0);
+
+		long version = service.patch(existingId, null, changes);
+		try {
+			Assertions.assertEquals(before.getVersion() + 1, version);
+			Assertions.assertEquals(loadsBefore, statistics.getEntityLoadCount());
+			Assertions.assertEquals(hitsBefore + 1,
+					statistics.getDomainDataRegionStatistics(Client.CACHE_REGION).getHitCount());
+		} finally {
+			changes.setIncome(before.getIncome());
+			service.patch(existingId, null, changes);
+		}
+	}
+
+	@Test
+	public void patchShouldDetachOnlyThePatchedClient() {
+		Client other = entityManager.find(Client.class, 2L);
+		Client patchedBefore = entityManager.find(Client.class, existingId);
+		ClientDTO changes = new ClientDTO();
+		changes.setChildren(3);
+
+		long version = service.patch(existingId, null, changes);
+
+		Assertions.assertTrue(entityManager.contains(other));
+		Assertions.assertFalse(entityManager.contains(patchedBefore));
+		Assertions.assertEquals(version, entityManager.find(Client.class, existingId).getVersion());
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void rolledBackUpdateShouldNotKeepClientOutOfSecondLevelCache() {
+		ClientDTO changed = service.findById(existingId);
+		String name = changed.getName();
+		changed.setName("Nome Descartado");
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			service.update(existingId, changed);
+			status.setRollbackOnly();
+		});
+
+		service.findById(existingId);
+		long hitsBefore = clientRegionStats().getHitCount();
+		ClientDTO after = service.findById(existingId);
+		Assertions.assertTrue(clientRegionStats().getHitCount() > hitsBefore);
+		Assertions.assertEquals(name, after.getName());
+	}
+
+	@Test
+	public void patchShouldThrowVersionConflictExceptionWhenVersionIsStale() {
+		ClientDTO changes = new ClientDTO();
+		changes.setChildren(7);
+		long version = service.patch(existingId, null, changes);
+
+		Assertions.assertThrows(VersionConflictException.class, () -> {
+			service.patch(existingId, version - 1, changes);
+		});
+	}
+
+	@Test
+	public void patchShouldThrowResourceNotFoundExceptionWhenIdDoesNotExist() {
+		ClientDTO changes = new ClientDTO();
+		changes.setChildren(7);
+
+		Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+			service.patch(nonExistingId, null, changes);
+		});
+	}
+
+	@Test
+	public void versionsShouldChangeWhenClientIsPatched() {
+		ClientVersionDTO before = service.findVersion(existingId);
+		ClientListVersionDTO listBefore = service.findListVersion(null);
+		ClientDTO changes = new ClientDTO();
+		changes.setChildren(5);
+
+		service.patch(existingId, before.getVersion(), changes);
+
+		ClientVersionDTO after = service.findVersion(existingId);
+		ClientListVersionDTO listAfter = service.findListVersion(null);
+		Assertions.assertEquals(before.getVersion() + 1, after.getVersion());
+		Assertions.assertTrue(after.getUpdatedAt().isAfter(before.getUpdatedAt()));
+		Assertions.assertEquals(listBefore.getCount(), listAfter.getCount());
+		Assertions.assertTrue(listAfter.getLastUpdatedAt().isAfter(listBefore.getLastUpdatedAt()));
+	}
+
+	@Test
+	public void adjustIncomeShouldBeVisibleToLaterReadsInTheSameTransaction() {
+		ClientDTO before = service.findById(existingId);
+
+		long updated = service.adjustIncome(1.1, before.getIncome(), before.getIncome());
+
+		Assertions.assertTrue(updated >= 1);
+		Assertions.assertEquals(before.getIncome() * 1.1, service.findById(existingId).getIncome(), 0.001);
+	}
+
+	@Test
+	public void deleteAllShouldIgnoreUnknownIdsAndReturnDeletedCount() {
+		long deleted = service.deleteAll(List.of(existingId, nonExistingId));
+
+		Assertions.assertEquals(1, deleted);
+		Assertions.assertEquals(countTotalClients - 1, service.findAll().size());
+	}
+
+	@Test
+	public void findAllPagedWithApproximateCountShouldKeepTotalsConsistentWithContent() {
+		countService.invalidate();
+		Slice<ClientDTO> first = service.findAllPaged(PageRequest.of(0, 5), CountMode.APPROXIMATE);
+		Slice<ClientDTO> last = service.findAllPaged(PageRequest.of(2, 5), CountMode.APPROXIMATE);
+
+		Assertions.assertEquals(countTotalClients, ((Page<ClientDTO>) first).getTotalElements());
+		Assertions.assertTrue(first.hasNext());
+		Assertions.assertEquals(countTotalClients, ((Page<ClientDTO>) last).getTotalElements());
+		Assertions.assertFalse(last.hasNext());
+	}
+
+	@Test
+	public void findByIncomeWithoutCountShouldReturnSlice() {
+		Slice<ClientDTO> result = service.findByIncome(4000.0, PageRequest.of(0, 10), CountMode.NONE);
+
+		Assertions.assertFalse(result instanceof Page);
+		Assertions.assertEquals(5, result.getNumberOfElements());
+		Assertions.assertFalse(result.hasNext());
+	}
+
+	@Test
+	public void searchByNameShouldIgnoreAccentsAndCase() {
+		nameIndex.rebuild();
+
+		List<ClientNameMatchDTO> result = service.searchByName("CONCEICAO evar", 10);
+
+		Assertions.assertEquals(1L, result.get(0).getId());
+		Assertions.assertEquals("Conceição Evaristo", result.get(0).getName());
+	}
+
+	@Test
+	public void searchByNameShouldRankWholeWordsAboveLeadingPrefixes() {
+		nameIndex.rebuild();
+
+		List<ClientNameMatchDTO> result = service.searchByName("amado", 10);
+		List<ClientNameMatchDTO> prefixed = service.searchByName("c", 10);
+
+		Assertions.assertEquals("Jorge Amado", result.get(0).getName());
+		Assertions.assertTrue(result.get(0).getScore() > prefixed.get(0).getScore());
+		Assertions.assertTrue(prefixed.stream().allMatch(x -> x.getName().matches("(?i).*\\bc.*")));
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void nameIndexShouldFollowCommittedInsertsUpdatesAndDeletes() {
+		nameIndex.rebuild();
+		clientDTO.setId(null);
+		clientDTO.setName("Lélia Gonzalez");
+		ClientDTO inserted = service.insert(clientDTO);
+		try {
+			Assertions.assertEquals(inserted.getId(), service.searchByName("lelia", 10).get(0).getId());
+
+			inserted.setName("Lélia de Almeida Gonzalez");
+			service.update(inserted.getId(), inserted);
+			Assertions.assertEquals(inserted.getId(), service.searchByName("lelia almeida", 10).get(0).getId());
+		} finally {
+			service.delete(inserted.getId());
+		}
+		Assertions.assertTrue(service.searchByName("lelia", 10).isEmpty());
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void nameIndexShouldDropEventsOlderThanTheIndexedVersion() {
+		nameIndex.rebuild();
+		clientDTO.setId(null);
+		clientDTO.setName("Lélia Gonzalez");
+		ClientDTO inserted = service.insert(clientDTO);
+		ClientDTO renamed = new ClientDTO(inserted.getId(), "Lélia de Almeida Gonzalez", inserted.getCpf(),
+				inserted.getIncome(), inserted.getBirthDate(), inserted.getChildren());
+		try {
+			ClientDTO updated = service.update(inserted.getId(), renamed);
+
+			nameIndex.onClientChanged(ClientChangedEvent.inserted(inserted));
+			Assertions.assertEquals(inserted.getId(), service.searchByName("lelia almeida", 10).get(0).getId());
+
+			service.delete(inserted.getId());
+			nameIndex.onClientChanged(ClientChangedEvent.updated(inserted, updated));
+			Assertions.assertTrue(service.searchByName("lelia", 10).isEmpty());
+		} finally {
+			jdbcTemplate.update("DELETE FROM tb_client WHERE id = ?", inserted.getId());
+		}
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void deleteAllShouldPublishOneDeleteEventPerClient() {
+		nameIndex.rebuild();
+		clientDTO.setId(null);
+		clientDTO.setName("Lélia Gonzalez");
+		ClientDTO inserted = service.insert(clientDTO);
+		try {
+			service.deleteAll(List.of(inserted.getId(), nonExistingId));
+
+			Assertions.assertTrue(service.searchByName("lelia", 10).isEmpty());
+			Assertions.assertEquals(1, jdbcTemplate.queryForObject(
+					"SELECT COUNT(*) FROM tb_client_change WHERE client_id = ? AND type = 'DELETE'", Integer.class,
+					inserted.getId()));
+		} finally {
+			jdbcTemplate.update("DELETE FROM tb_client WHERE id = ?", inserted.getId());
+		}
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void nameIndexShouldRebuildInTheBackgroundAfterBulkStatements() throws InterruptedException {
+		nameIndex.rebuild();
+		clientDTO.setId(null);
+		clientDTO.setName("Lélia Gonzalez");
+		clientDTO.setIncome(123456.78);
+		ClientDTO inserted = service.insert(clientDTO);
+		try {
+			service.deleteByIncome(123456.78, 123456.78);
+
+			for (int i = 0; i < 100 && !service.searchByName("lelia", 10).isEmpty(); i++) {
+				Thread.sleep(50);
+			}
+			Assertions.assertTrue(service.searchByName("lelia", 10).isEmpty());
+		} finally {
+			jdbcTemplate.update("DELETE FROM tb_client WHERE id = ?", inserted.getId());
+		}
+	}
+
+	@Test
+	public void searchByNameShouldThrowInvalidRequestExceptionWhenQueryHasNoWords() {
+		Assertions.assertThrows(InvalidRequestException.class, () -> service.searchByName(" - ", 10));
+	}
+
+	@Test
+	public void incomeStatsShouldReturnHistogramSpanningAllGroups() {
+		IncomeStatsDTO stats = service.incomeStats(List.of(0.5, 0.9), 4, true);
+
+		Assertions.assertEquals(countTotalClients, stats.getCount());
+		Assertions.assertEquals(4, stats.getHistogram().size());
+		Assertions.assertEquals(1500.0, stats.getHistogram().get(0).getLowerBound());
+		Assertions.assertEquals(10000.0, stats.getHistogram().get(3).getUpperBound(), 0.001);
+		Assertions.assertEquals(countTotalClients,
+				stats.getHistogram().stream().mapToLong(IncomeBucketDTO::getCount).sum());
+		Assertions.assertEquals(List.of(0, 1, 2, 4),
+				stats.getGroups().stream().map(IncomeStatsDTO::getChildren).collect(Collectors.toList()));
+		for (IncomeStatsDTO group : stats.getGroups()) {
+			Assertions.assertEquals(group.getCount(),
+					group.getHistogram().stream().mapToLong(IncomeBucketDTO::getCount).sum());
+		}
+	}
+
+	@Test
+	public void incomeStatsShouldThrowInvalidRequestExceptionWhenPercentileIsOutOfRange() {
+		Assertions.assertThrows(InvalidRequestException.class, () -> service.incomeStats(List.of(1.5), 10, false));
+	}
+
+	@Test
+	public void liveIncomeStatsShouldAgreeWithDatabaseAggregates() {
+		aggregates.rebuild();
+
+		IncomeStatsDTO live = service.liveIncomeStats(List.of(0.5), "children");
+		IncomeStatsDTO exact = service.incomeStats(List.of(0.5), 1, true);
+
+		Assertions.assertEquals(exact.getCount(), live.getCount());
+		Assertions.assertEquals(exact.getAvg(), live.getAvg(), 0.001);
+		Assertions.assertEquals(10000.0, live.getMax(), 10000.0 * IncomeSketch.RELATIVE_ACCURACY);
+		Assertions.assertEquals(2500.0, live.getPercentiles().get("p50"), 2500.0 * IncomeSketch.RELATIVE_ACCURACY);
+		Assertions.assertEquals(exact.getGroups().stream().map(IncomeStatsDTO::getCount).collect(Collectors.toList()),
+				live.getGroups().stream().map(IncomeStatsDTO::getCount).collect(Collectors.toList()));
+		IncomeStatsDTO byDecade = service.liveIncomeStats(List.of(), "birthDecade");
+		Assertions.assertEquals(1910, byDecade.getGroups().get(0).getBirthDecade());
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void liveIncomeStatsShouldCountOnlyClientsWithIncome() {
+		aggregates.rebuild();
+		clientDTO.setId(null);
+		clientDTO.setIncome(null);
+		ClientDTO inserted = service.insert(clientDTO);
+		try {
+			IncomeStatsDTO live = service.liveIncomeStats(List.of(), null);
+			IncomeStatsDTO exact = service.incomeStats(List.of(), 1, false);
+
+			Assertions.assertEquals(exact.getCount(), live.getCount());
+		} finally {
+			service.delete(inserted.getId());
+		}
+	}
+
+	@Test
+	public void incomeSketchShouldKeepNegativeAndSubUnitIncomes() {
+		IncomeSketch sketch = new IncomeSketch();
+		sketch.add(-500.0);
+		sketch.add(0.0);
+		sketch.add(0.5);
+		sketch.add(2500.0);
+
+		Assertions.assertEquals(-500.0, sketch.quantile(0.0), 500.0 * IncomeSketch.RELATIVE_ACCURACY);
+		Assertions.assertEquals(0.0, sketch.quantile(0.5));
+		Assertions.assertEquals(0.5, sketch.quantile(0.7), 0.5 * IncomeSketch.RELATIVE_ACCURACY);
+		Assertions.assertEquals(2500.0, sketch.quantile(1.0), 2500.0 * IncomeSketch.RELATIVE_ACCURACY);
+
+		sketch.remove(-500.0);
+		Assertions.assertEquals(0.0, sketch.quantile(0.0));
+		Assertions.assertEquals(3, sketch.getCount());
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void liveIncomeStatsShouldFollowCommittedWrites() {
+		aggregates.rebuild();
+		IncomeStatsDTO before = service.liveIncomeStats(List.of(), null);
+		clientDTO.setId(null);
+		clientDTO.setIncome(100000.0);
+		ClientDTO inserted = service.insert(clientDTO);
+		try {
+			IncomeStatsDTO afterInsert = service.liveIncomeStats(List.of(), null);
+			Assertions.assertEquals(before.getCount() + 1, afterInsert.getCount());
+			Assertions.assertEquals(100000.0, afterInsert.getMax(), 100000.0 * IncomeSketch.RELATIVE_ACCURACY);
+
+			ClientDTO changes = new ClientDTO();
+			changes.setIncome(200000.0);
+			service.patch(inserted.getId(), null, changes);
+			Assertions.assertEquals(200000.0, service.liveIncomeStats(List.of(), null).getMax(),
+					200000.0 * IncomeSketch.RELATIVE_ACCURACY);
+		} finally {
+			service.delete(inserted.getId());
+		}
+		IncomeStatsDTO afterDelete = service.liveIncomeStats(List.of(), null);
+		Assertions.assertEquals(before.getCount(), afterDelete.getCount());
+		Assertions.assertEquals(before.getAvg(), afterDelete.getAvg(), 0.001);
+	}
+
+	@Test
+	public void findChangesShouldThrowInvalidRequestExceptionWhenCursorIsNotAnId() {
+		Assertions.assertThrows(InvalidRequestException.class, () -> service.findChanges("abc", 10));
+	}
+
+	@Test
+	public void searchShouldReturnSortedPageOfMatchingClients() {
+		ClientFilterDTO filter = new ClientFilterDTO();
+		filter.setMaxIncome(2500.0);
+		filter.setMaxChildren(0);
+
+		Page<ClientDTO> result = service.search(filter, PageRequest.of(0, 12, Direction.ASC, "name"));
+
+		Assertions.assertEquals(List.of("Chimamanda Adichie", "Jorge Amado", "Yuval Noah Harari"),
+				result.map(ClientDTO::getName).getContent());
+	}
+
+	@Test
+	public void deleteByIncomeShouldThrowInvalidRequestExceptionWhenRangeIsUnbounded() {
+		Assertions.assertThrows(InvalidRequestException.class, () -> {
+			service.deleteByIncome(null, null);
+		});
+	}
+
+	@Test
+	public void findAllByIdShouldReturnClientsInRequestOrderAndReportMissingIds() {
+		List<Long> ids = new ArrayList<>();
+		for (long id = 250; id >= 1; id--) {
+			ids.add(id);
+		}
+		ids.add(5L);
+
+		ClientLookupDTO result = service.findAllById(ids);
+
+		Assertions.assertEquals(List.of(12L, 11L, 10L, 9L, 8L, 7L, 6L, 5L, 4L, 3L, 2L, 1L),
+				result.getContent().stream().map(ClientDTO::getId).collect(Collectors.toList()));
+		Assertions.assertEquals(238, result.getMissing().size());
+		Assertions.assertEquals(250L, result.getMissing().get(0));
+		Assertions.assertEquals(13L, result.getMissing().get(237));
+	}
+
+	@Test
+	public void findAllByIdShouldThrowInvalidRequestExceptionWhenTooManyIds() {
+		List<Long> ids = new ArrayList<>();
+		for (long id = 1; id <= 1001; id++) {
+			ids.add(id);
+		}
+		Assertions.assertThrows(InvalidRequestException.class, () -> service.findAllById(ids));
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void findAllByIdShouldServeCachedClientsFromTheSecondLevelCache() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		entityManagerFactory.getCache().evict(Client.class);
+		service.findById(2L);
+		service.findById(3L);
+		long hitsBefore = statistics.getDomainDataRegionStatistics(Client.CACHE_REGION).getHitCount();
+		long statementsBefore = statistics.getPrepareStatementCount();
+
+		ClientLookupDTO cached = service.findAllById(List.of(3L, 2L));
+
+		Assertions.assertEquals(List.of(3L, 2L),
+				cached.getContent().stream().map(ClientDTO::getId).collect(Collectors.toList()));
+		Assertions.assertEquals(hitsBefore + 2, statistics.getDomainDataRegionStatistics(Client.CACHE_REGION)
+				.getHitCount());
+		Assertions.assertEquals(statementsBefore, statistics.getPrepareStatementCount());
+
+		// only the ids missing from the cache go to the database, in one query
+		ClientLookupDTO mixed = service.findAllById(List.of(2L, 4L, 3L));
+
+		Assertions.assertEquals(List.of(2L, 4L, 3L),
+				mixed.getContent().stream().map(ClientDTO::getId).collect(Collectors.toList()));
+		Assertions.assertEquals(hitsBefore + 4, statistics.getDomainDataRegionStatistics(Client.CACHE_REGION)
+				.getHitCount());
+		Assertions.assertEquals(statementsBefore + 1, statistics.getPrepareStatementCount());
+	}
+
+	private static boolean isValidCpf(String cpf) {
+		int[] digits = cpf.chars().map(x -> x - '0').toArray();
+		for (int length = 9; length <= 10; length++) {
+			int sum = 0;
+			for (int i = 0; i < length; i++) {
+				sum += digits[i] * (length + 1 - i);
+			}
+			if ((sum * 10) % 11 % 10 != digits[length]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 }
@@ -0,0 +1,204 @@
+package com.iftm.client.tests.integration;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import com.iftm.client.config.ExecutionConfig;
+import com.iftm.client.config.ExecutionConfig.RequestExecutorCustomizer;
+
+// the executor is set on Tomcat's connector, so each mode starts a real server
+public class ExecutionConfigTests {
+
+	private static Executor tomcatExecutor(ServletWebServerApplicationContext context) {
+		return ((TomcatWebServer) context.getWebServer()).getTomcat().getConnector().getProtocolHandler()
+				.getExecutor();
+	}
+
+	private static String threadName(ExecutorService executor) throws Exception {
+		return executor.submit(() -> Thread.currentThread().getName()).get();
+	}
+
+	/*
+	 * MVC async requests (Callable, StreamingResponseBody) must run on Boot's
+	 * applicationTaskExecutor, a fixed set of "task-" threads, in every mode. The
+	 * SimpleAsyncTaskExecutor fallback starts a new "MvcAsync" thread per request.
+	 */
+	private static void assertAsyncRequestsRunOnTheTaskExecutor(ServletWebServerApplicationContext context,
+			int port) throws Exception {
+		ThreadPoolTaskExecutor taskExecutor = context.getBean("applicationTaskExecutor", ThreadPoolTaskExecutor.class);
+		Assertions.assertEquals(8, taskExecutor.getCorePoolSize());
+		HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/async-thread"))
+				.timeout(Duration.ofSeconds(10)).build();
+		Set<String> threads = new HashSet<>();
+		for (int i = 0; i < 20; i++) {
+			String thread = http.send(request, HttpResponse.BodyHandlers.ofString()).body();
+			Assertions.assertTrue(thread.startsWith("task-"), thread);
+			threads.add(thread);
+		}
+		Assertions.assertTrue(threads.size() <= 8, threads.toString());
+	}
+
+	@TestConfiguration
+	static class AsyncThreadConfig {
+
+		@Bean
+		AsyncThreadResource asyncThreadResource() {
+			return new AsyncThreadResource();
+		}
+
+	}
+
+	// registered through AsyncThreadConfig only, not picked up by component scanning
+	@RequestMapping
+	@ResponseBody
+	static class AsyncThreadResource {
+
+		@GetMapping("/async-thread")
+		public Callable<String> thread() {
+			return () -> Thread.currentThread().getName();
+		}
+
+	}
+
+	@Nested
+	@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+	@Import(AsyncThreadConfig.class)
+	public class Unset {
+
+		@Autowired
+		private ServletWebServerApplicationContext context;
+
+		@LocalServerPort
+		private int port;
+
+		@Test
+		public void tomcatShouldKeepItsOwnPool() {
+			Assertions.assertTrue(context.getBeansOfType(RequestExecutorCustomizer.class).isEmpty());
+			Executor executor = tomcatExecutor(context);
+			Assertions.assertTrue(executor instanceof org.apache.tomcat.util.threads.ThreadPoolExecutor);
+			Assertions.assertEquals(200, ((ThreadPoolExecutor) executor).getMaximumPoolSize());
+		}
+
+		@Test
+		public void asyncRequestsShouldRunOnTheTaskExecutor() throws Exception {
+			assertAsyncRequestsRunOnTheTaskExecutor(context, port);
+		}
+
+	}
+
+	@Nested
+	@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = { "client.execution.mode=bounded",
+			"client.execution.threads=3", "client.execution.queue-capacity=7" })
+	@Import(AsyncThreadConfig.class)
+	public class Bounded {
+
+		@Autowired
+		private ServletWebServerApplicationContext context;
+
+		@Autowired
+		private RequestExecutorCustomizer customizer;
+
+		@LocalServerPort
+		private int port;
+
+		@Test
+		public void tomcatShouldRunOnTheBoundedExecutor() throws Exception {
+			Assertions.assertSame(customizer.getExecutor(), tomcatExecutor(context));
+			ThreadPoolExecutor executor = (ThreadPoolExecutor) customizer.getExecutor();
+			Assertions.assertEquals(3, executor.getCorePoolSize());
+			Assertions.assertEquals(3, executor.getMaximumPoolSize());
+			Assertions.assertEquals(7, executor.getQueue().remainingCapacity() + executor.getQueue().size());
+			Assertions.assertTrue(threadName(executor).startsWith("client-exec-"));
+		}
+
+		@Test
+		public void asyncRequestsShouldRunOnTheTaskExecutor() throws Exception {
+			assertAsyncRequestsRunOnTheTaskExecutor(context, port);
+		}
+
+	}
+
+	@Nested
+	@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = { "client.execution.mode=virtual",
+			"client.execution.threads=3", "client.execution.queue-capacity=7" })
+	@Import(AsyncThreadConfig.class)
+	public class Virtual {
+
+		@Autowired
+		private ServletWebServerApplicationContext context;
+
+		@Autowired
+		private RequestExecutorCustomizer customizer;
+
+		@LocalServerPort
+		private int port;
+
+		@Test
+		public void tomcatShouldRunOnVirtualThreadsOrFallBackToTheBoundedExecutor() throws Exception {
+			ExecutorService requestExecutor = customizer.getExecutor();
+			Assertions.assertSame(requestExecutor, tomcatExecutor(context));
+			if (hasVirtualThreads()) {
+				Assertions.assertFalse(requestExecutor instanceof ThreadPoolExecutor);
+				Assertions.assertTrue(requestExecutor.submit(() -> (Boolean) Thread.class
+						.getMethod("isVirtual").invoke(Thread.currentThread())).get());
+			} else {
+				ThreadPoolExecutor executor = (ThreadPoolExecutor) requestExecutor;
+				Assertions.assertEquals(3, executor.getMaximumPoolSize());
+				Assertions.assertEquals(7, executor.getQueue().remainingCapacity() + executor.getQueue().size());
+				Assertions.assertTrue(threadName(executor).startsWith("client-exec-"));
+			}
+		}
+
+		@Test
+		public void asyncRequestsShouldRunOnTheTaskExecutor() throws Exception {
+			assertAsyncRequestsRunOnTheTaskExecutor(context, port);
+		}
+
+		private boolean hasVirtualThreads() {
+			try {
+				Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+				return true;
+			} catch (NoSuchMethodException e) {
+				return false;
+			}
+		}
+
+	}
+
+	@Test
+	public void unknownModeShouldFailStartup() {
+		new ApplicationContextRunner().withUserConfiguration(ExecutionConfig.class)
+				.withPropertyValues("client.execution.mode=pooled")
+				.run(context -> Assertions.assertNotNull(context.getStartupFailure()));
+	}
+
+}
@@ -0,0 +1,171 @@
+package com.iftm.client.tests.integration;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.reactive.ReactiveClientApplication;
+import com.iftm.client.reactive.ReactiveClientHandler;
+import com.iftm.client.reactive.ReactiveClientService;
+
+@SpringBootTest(classes = ReactiveClientApplication.class, properties = {
+		"spring.config.name=" + ReactiveClientApplication.CONFIG_NAME,
+		"spring.main.web-application-type=reactive" })
+@AutoConfigureWebTestClient
+public class ReactiveClientApiTests {
+
+	@Autowired
+	private WebTestClient client;
+
+	@Autowired
+	private ReactiveClientService service;
+
+	@Test
+	public void findAllShouldReturnPageSortedByName() {
+		client.get().uri("/clients?linesPerPage=5").exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.totalElements").isEqualTo(12)
+				.jsonPath("$.content.length()").isEqualTo(5)
+				.jsonPath("$.content[0].name").isEqualTo("Carolina Maria de Jesus");
+	}
+
+	@Test
+	public void findByIncomeShouldReturnClientsWithIncomeAtLeastGiven() {
+		client.get().uri("/clients/find-by-income?income=5000").exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.totalElements").isEqualTo(3);
+	}
+
+	@Test
+	public void findAllShouldStreamThePageAsNdjsonWhenAccepted() {
+		List<ClientDTO> clients = client.get().uri("/clients?linesPerPage=5")
+				.accept(MediaType.APPLICATION_NDJSON).exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+				.expectHeader().valueEquals(ReactiveClientHandler.TOTAL_COUNT_HEADER, "12")
+				.returnResult(ClientDTO.class).getResponseBody().collectList().block();
+		Assertions.assertEquals(5, clients.size());
+		Assertions.assertEquals("Carolina Maria de Jesus", clients.get(0).getName());
+	}
+
+	@Test
+	public void findByIncomeShouldStreamThePageAsNdjsonWhenAccepted() {
+		List<ClientDTO> clients = client.get().uri("/clients/find-by-income?income=5000")
+				.accept(MediaType.APPLICATION_NDJSON).exchange()
+				.expectStatus().isOk()
+				.expectHeader().valueEquals(ReactiveClientHandler.TOTAL_COUNT_HEADER, "3")
+				.returnResult(ClientDTO.class).getResponseBody().collectList().block();
+		Assertions.assertEquals(3, clients.size());
+		Assertions.assertTrue(clients.stream().allMatch(x -> x.getIncome() >= 5000.0));
+	}
+
+	@Test
+	public void findByIncomeShouldReturnBadRequestWhenIncomeIsMissing() {
+		client.get().uri("/clients/find-by-income").exchange()
+				.expectStatus().isBadRequest()
+				.expectBody()
+				.jsonPath("$.error").isEqualTo("Invalid request");
+	}
+
+	@Test
+	public void findByIncomeShouldReturnBadRequestWhenIncomeIsNotANumber() {
+		client.get().uri("/clients/find-by-income?income=abc").exchange()
+				.expectStatus().isBadRequest()
+				.expectBody()
+				.jsonPath("$.message").isEqualTo("Invalid income: abc");
+	}
+
+	@Test
+	public void findAllShouldReturnBadRequestWhenPagingIsNotANumber() {
+		client.get().uri("/clients?page=x").exchange().expectStatus().isBadRequest();
+		client.get().uri("/clients?linesPerPage=12.5").exchange().expectStatus().isBadRequest();
+		client.get().uri("/clients?direction=up").exchange().expectStatus().isBadRequest();
+	}
+
+	@Test
+	public void findByIdShouldReturnBadRequestWhenIdIsNotANumber() {
+		client.get().uri("/clients/abc").exchange()
+				.expectStatus().isBadRequest()
+				.expectBody()
+				.jsonPath("$.error").isEqualTo("Invalid request");
+	}
+
+	@Test
+	public void findByIdShouldReturnClientWhenIdExists() {
+		client.get().uri("/clients/1").exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.id").isEqualTo(1)
+				.jsonPath("$.name").isEqualTo("Conceição Evaristo");
+	}
+
+	@Test
+	public void findByIdShouldReturnNotFoundWhenIdDoesNotExist() {
+		client.get().uri("/clients/1000").exchange()
+				.expectStatus().isNotFound()
+				.expectBody()
+				.jsonPath("$.status").isEqualTo(404)
+				.jsonPath("$.path").isEqualTo("/clients/1000");
+	}
+
+	@Test
+	public void insertUpdateAndDeleteShouldRoundTrip() {
+		ClientDTO dto = new ClientDTO(null, "Reativo", "12345678901", 1200.0,
+				Instant.parse("1990-05-01T03:00:00Z"), 1);
+		ClientDTO inserted = client.post().uri("/clients").bodyValue(dto).exchange()
+				.expectStatus().isCreated()
+				.expectBody(ClientDTO.class).returnResult().getResponseBody();
+		Assertions.assertNotNull(inserted.getId());
+		Assertions.assertEquals(dto.getBirthDate(), inserted.getBirthDate());
+
+		dto.setIncome(2400.0);
+		client.put().uri("/clients/{id}", inserted.getId()).bodyValue(dto).exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.income").isEqualTo(2400.0);
+
+		client.delete().uri("/clients/{id}", inserted.getId()).exchange()
+				.expectStatus().isNoContent();
+		client.get().uri("/clients/{id}", inserted.getId()).exchange()
+				.expectStatus().isNotFound();
+	}
+
+	@Test
+	public void updateShouldReturnNotFoundWhenIdDoesNotExist() {
+		client.put().uri("/clients/1000").bodyValue(new ClientDTO()).exchange()
+				.expectStatus().isEqualTo(HttpStatus.NOT_FOUND);
+	}
+
+	@Test
+	public void exportShouldStreamEveryClientAsNdjson() {
+		List<ClientDTO> clients = client.get().uri("/clients/export").exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentTypeCompatibleWith(MediaType.valueOf("application/x-ndjson"))
+				.returnResult(ClientDTO.class).getResponseBody().collectList().block();
+		Assertions.assertEquals(12, clients.size());
+	}
+
+	@Test
+	public void exportShouldRejectCsv() {
+		client.get().uri("/clients/export?format=csv").exchange()
+				.expectStatus().isBadRequest();
+	}
+
+	@Test
+	public void exportShouldOnlyReadWhatIsRequested() {
+		List<Long> ids = service.export().limitRate(2).take(5).map(ClientDTO::getId).collectList().block();
+		Assertions.assertEquals(List.of(1L, 2L, 3L, 4L, 5L), ids);
+	}
+
+}
@@ -0,0 +1,129 @@
+package com.iftm.client.tests.integration;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.iftm.client.config.ReplicaLagGuard;
+import com.iftm.client.dto.ClientChangeDTO;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.entities.Client;
+import com.iftm.client.services.ClientBatchLoader;
+import com.iftm.client.services.ClientService;
+
+/*
+ * Two in-memory H2 databases stand in for primary and replica. Nothing replicates
+ * between them, so every row says which one served it.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=" + ReplicaRoutingTests.PRIMARY_URL,
+		"client.datasource.replicas[0].url=" + ReplicaRoutingTests.REPLICA_URL,
+		"client.datasource.replicas[0].username=sa",
+		"client.datasource.replicas[0].maximum-pool-size=2",
+		"client.datasource.lag-guard=1m",
+		"client.changes.settle-time=0s",
+		"client.batch.enabled=true" })
+public class ReplicaRoutingTests {
+
+	static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+	static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+	static final String INSERT_CHANGE = "INSERT INTO tb_client_change (id, client_id, type, created_at)"
+			+ " VALUES (NEXT VALUE FOR seq_client_change, ?, 'DELETE', DATEADD('HOUR', -1, CURRENT_TIMESTAMP))";
+
+	@Autowired
+	private ClientService service;
+
+	@Autowired
+	private ClientBatchLoader batchLoader;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@BeforeAll
+	static void setUpReplica() {
+		DriverManagerDataSource replica = new DriverManagerDataSource(REPLICA_URL, "sa", "");
+		Flyway.configure().dataSource(replica).load().migrate();
+		new JdbcTemplate(replica).update("UPDATE tb_client SET name = 'Replica Only' WHERE id = 1");
+		new JdbcTemplate(replica).update(INSERT_CHANGE, 9001L);
+	}
+
+	@AfterEach
+	void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	public void readOnlyTransactionsShouldReadFromReplica() {
+		Assertions.assertEquals("Replica Only", nameOf(1L));
+	}
+
+	@Test
+	public void writesShouldGoToPrimaryAndStayVisibleToTheWritingCaller() {
+		callAs("writer");
+		ClientDTO changes = new ClientDTO();
+		changes.setName("Written To Primary");
+		service.patch(2L, null, changes);
+
+		Assertions.assertEquals("Written To Primary", nameOf(2L));
+		Assertions.assertEquals("Conceição Evaristo", nameOf(1L));
+
+		callAs("someone-else");
+		Assertions.assertEquals("Lázaro Ramos", nameOf(2L));
+		Assertions.assertEquals("Replica Only", nameOf(1L));
+	}
+
+	@Test
+	public void batchedLookupsShouldKeepTheWritingCallerOnThePrimary() {
+		callAs("batch-writer");
+		ClientDTO changes = new ClientDTO();
+		changes.setName("Batched From Primary");
+		service.patch(3L, null, changes);
+		entityManagerFactory.getCache().evict(Client.class);
+
+		Assertions.assertEquals("Batched From Primary", batchLoader.load(3L).getName());
+
+		entityManagerFactory.getCache().evict(Client.class);
+		callAs("batch-reader");
+		Assertions.assertEquals("Replica Only", batchLoader.load(1L).getName());
+	}
+
+	@Test
+	public void changeFeedShouldReadFromPrimary() {
+		new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", "")).update(INSERT_CHANGE, 9002L);
+
+		List<Long> clientIds = service.findChanges(null, 1000).getContent().stream()
+				.map(ClientChangeDTO::getClientId).collect(Collectors.toList());
+
+		Assertions.assertTrue(clientIds.contains(9002L));
+		Assertions.assertFalse(clientIds.contains(9001L));
+		Assertions.assertEquals("Replica Only", nameOf(1L));
+	}
+
+	private String nameOf(Long id) {
+		return service.findAllPaged(PageRequest.of(0, 12, Direction.ASC, "id")).getContent().stream()
+				.filter(x -> x.getId().equals(id)).findFirst().get().getName();
+	}
+
+	private static void callAs(String caller) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader(ReplicaLagGuard.CALLER_HEADER, caller);
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+	}
+
+}
@@ -0,0 +1,33 @@
+package com.iftm.client.tests.repositories;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/*
+ * Records every SQL statement Hibernate prepares, so tests can look at the SQL the
+ * repository really sends (hibernate.session_factory.statement_inspector).
+ */
+public class CapturedStatements implements StatementInspector {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+	@Override
+	public String inspect(String sql) {
+		STATEMENTS.add(sql);
+		return sql;
+	}
+
+	public static void clear() {
+		STATEMENTS.clear();
+	}
+
+	public static List<String> all() {
+		return new ArrayList<>(STATEMENTS);
+	}
+
+}
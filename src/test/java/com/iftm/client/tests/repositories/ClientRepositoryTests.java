@@ -1,10 +1,23 @@
 package com.iftm.client.tests.repositories;
 
 import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.time.Instant;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
+import javax.persistence.EntityManager;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,17 +26,27 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort.Direction;
 
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.ClientFilterDTO;
+import com.iftm.client.dto.IncomeStatsDTO;
 import com.iftm.client.entities.Client;
 import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.repositories.ClientSpecifications;
 import com.iftm.client.tests.factory.ClientFactory;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+		+ "com.iftm.client.tests.repositories.CapturedStatements")
 public class ClientRepositoryTests {
 	
 	@Autowired
 	private ClientRepository repository;
 	
+	@Autowired
+	private EntityManager em;
+	
 	private long existingId;
 	private long nonExistingId;
 	private long countTotalClients;
@@ -150,4 +173,308 @@ public class ClientRepositoryTests {
 				
 	}
 	
+	@Test
+	public void findAfterShouldWalkAllClientsWithoutRepeatingWhenSeekingByName() {
+		Set<Long> seen = new HashSet<>();
+		String lastName = null;
+		Long lastId = null;
+		List<ClientDTO> page;
+		do {
+			page = repository.findAfter(null, "name", Direction.ASC, lastName, lastId, 5);
+			for (ClientDTO client : page) {
+				Assertions.assertTrue(seen.add(client.getId()));
+				if (lastName != null) {
+					Assertions.assertTrue(client.getName().compareTo(lastName) >= 0);
+				}
+				lastName = client.getName();
+				lastId = client.getId();
+			}
+		} while (!page.isEmpty());
+		
+		Assertions.assertEquals(countTotalClients, seen.size());
+	}
+	
+	@Test
+	public void findAfterShouldApplyIncomeFilterWhenSeekingByIncomeDesc() {
+		List<ClientDTO> first = repository.findAfter(4000.0, "income", Direction.DESC, null, null, 3);
+		ClientDTO last = first.get(first.size() - 1);
+		List<ClientDTO> second = repository.findAfter(4000.0, "income", Direction.DESC, last.getIncome(), last.getId(), 3);
+		
+		Assertions.assertEquals(3, first.size());
+		Assertions.assertEquals(countClientByIncome - 3, second.size());
+		Assertions.assertEquals(10000.0, first.get(0).getIncome());
+		Assertions.assertTrue(second.stream().allMatch(x -> x.getIncome() <= last.getIncome()));
+	}
+	
+	@Test
+	public void findAfterShouldWalkClientsWithNullIncomeInBothDirections() {
+		for (long id : List.of(3L, 7L)) {
+			Client client = repository.findById(id).get();
+			client.setIncome(null);
+		}
+		repository.flush();
+		
+		for (Direction direction : Direction.values()) {
+			Set<Long> seen = new HashSet<>();
+			Object lastIncome = null;
+			Long lastId = null;
+			List<ClientDTO> page;
+			do {
+				page = repository.findAfter(null, "income", direction, lastIncome, lastId, 2);
+				for (ClientDTO client : page) {
+					Assertions.assertTrue(seen.add(client.getId()));
+					lastIncome = client.getIncome();
+					lastId = client.getId();
+				}
+			} while (!page.isEmpty());
+			
+			Assertions.assertEquals(countTotalClients, seen.size());
+		}
+	}
+	
+	@Test
+	public void slicedQueriesShouldBeServedFromTheQueryCache() {
+		Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		PageRequest pageRequest = PageRequest.of(0, 3, Direction.ASC, "name");
+		long hits = statistics.getQueryRegionStatistics(Client.QUERY_CACHE_REGION).getHitCount();
+		
+		Slice<ClientDTO> all = repository.findAllSliced(pageRequest);
+		Slice<ClientDTO> byIncome = repository.findByIncomeSliced(4000.0, pageRequest);
+		
+		Assertions.assertEquals(ids(all), ids(repository.findAllSliced(pageRequest)));
+		Assertions.assertEquals(ids(byIncome), ids(repository.findByIncomeSliced(4000.0, pageRequest)));
+		Assertions.assertEquals(hits + 2, statistics.getQueryRegionStatistics(Client.QUERY_CACHE_REGION).getHitCount());
+	}
+	
+	private static List<Long> ids(Slice<ClientDTO> slice) {
+		return slice.getContent().stream().map(ClientDTO::getId).collect(Collectors.toList());
+	}
+	
+	@Test
+	public void queryPlansShouldUseClientIndexes() {
+		Assertions.assertTrue(explainGenerated(() -> repository.findByIncome(4000.0, PageRequest.of(0, 10)))
+				.contains("IDX_CLIENT_INCOME"));
+		Assertions.assertTrue(explainGenerated(() -> repository.findByFirstnameIgnoreCase("jorge amado"))
+				.contains("IDX_CLIENT_NAME_UPPER"));
+		Assertions.assertTrue(explainGenerated(() -> repository.findByChildrenNotLike0(0))
+				.contains("IDX_CLIENT_CHILDREN"));
+		String seek = explainAnalyzeGenerated(() -> repository.findAfter(null, "name", Direction.ASC, "Clarice", 3L, 5),
+				"Clarice", "Clarice", "Clarice", 5);
+		Assertions.assertTrue(seek.contains("IDX_CLIENT_NAME_ID: NAME >= "), seek);
+		Assertions.assertTrue(scanCount(seek) <= 6, seek);
+	}
+	
+	@Test
+	public void findAfterShouldStartDeepPagesFromTheIndexRange() {
+		// 500 more clients, every tenth without income
+		em.createNativeQuery("INSERT INTO tb_client (id, name, cpf, income, children) SELECT 1000 + X,"
+				+ " 'Seek ' || LPAD(X, 4, '0'), LPAD(X, 11, '0'),"
+				+ " CASE WHEN MOD(X, 10) = 0 THEN NULL ELSE 1000.0 + X END, MOD(X, 4)"
+				+ " FROM SYSTEM_RANGE(1, 500)").executeUpdate();
+		
+		String byName = explainAnalyzeGenerated(
+				() -> repository.findAfter(null, "name", Direction.ASC, "Seek 0400", 1400L, 5), "Seek 0400", "Seek 0400",
+				"Seek 0400", 5);
+		String byIncomeDesc = explainAnalyzeGenerated(
+				() -> repository.findAfter(1100.0, "income", Direction.DESC, 1301.0, 1301L, 5), 5);
+		String nullsDesc = explainAnalyzeGenerated(
+				() -> repository.findAfter(null, "income", Direction.DESC, null, 1300L, 5), 5);
+		
+		Assertions.assertTrue(scanCount(byName) <= 6, byName);
+		Assertions.assertTrue(byIncomeDesc.contains("IDX_CLIENT_INCOME_DESC"), byIncomeDesc);
+		Assertions.assertTrue(byIncomeDesc.contains("index sorted"), byIncomeDesc);
+		Assertions.assertTrue(scanCount(byIncomeDesc) <= 6, byIncomeDesc);
+		Assertions.assertTrue(scanCount(nullsDesc) <= 6, nullsDesc);
+	}
+	
+	@Test
+	public void findAfterShouldCrossBetweenNullAndValueRunsWithinOnePage() {
+		em.createNativeQuery("INSERT INTO tb_client (id, name, cpf, income, children) SELECT 1000 + X,"
+				+ " 'Seek ' || LPAD(X, 4, '0'), LPAD(X, 11, '0'),"
+				+ " CASE WHEN MOD(X, 10) = 0 THEN NULL ELSE 1000.0 + X END, MOD(X, 4)"
+				+ " FROM SYSTEM_RANGE(1, 500)").executeUpdate();
+		
+		// ascending the NULL run comes first, descending it comes last
+		List<ClientDTO> asc = repository.findAfter(null, "income", Direction.ASC, null, 1490L, 3);
+		List<ClientDTO> desc = repository.findAfter(null, "income", Direction.DESC, 1001.0, 1001L, 3);
+		
+		Assertions.assertEquals(List.of(1500L, 1001L, 1002L), asc.stream().map(ClientDTO::getId).collect(Collectors.toList()));
+		Assertions.assertEquals(List.of(1500L, 1490L, 1480L), desc.stream().map(ClientDTO::getId).collect(Collectors.toList()));
+	}
+	
+	@Test
+	public void deleteByIdInShouldDeleteExistingIdsAndReturnCount() {
+		int deleted = repository.deleteByIdIn(List.of(1L, 2L, nonExistingId));
+		
+		Assertions.assertEquals(2, deleted);
+		Assertions.assertEquals(countTotalClients - 2, repository.count());
+		Assertions.assertFalse(repository.existsById(1L));
+	}
+	
+	@Test
+	public void deleteByIncomeBetweenShouldReturnCount() {
+		int deleted = repository.deleteByIncomeBetween(1500.0, 2500.0);
+		
+		Assertions.assertEquals(6, deleted);
+		Assertions.assertEquals(countTotalClients - 6, repository.count());
+	}
+	
+	@Test
+	public void adjustIncomeBetweenShouldUpdateMatchingClientsAndBumpVersion() {
+		Client before = repository.findById(8L).get();
+		
+		int updated = repository.adjustIncomeBetween(2.0, 10000.0, Double.MAX_VALUE);
+		
+		Client after = repository.findById(8L).get();
+		Assertions.assertEquals(1, updated);
+		Assertions.assertEquals(20000.0, after.getIncome());
+		Assertions.assertEquals(before.getVersion() + 1, after.getVersion());
+	}
+	
+	@Test
+	public void findByIncomeSlicedShouldReportNextSliceWithoutCounting() {
+		Slice<ClientDTO> first = repository.findByIncomeSliced(4000.0, PageRequest.of(0, 3, Direction.ASC, "name"));
+		Slice<ClientDTO> second = repository.findByIncomeSliced(4000.0, PageRequest.of(1, 3, Direction.ASC, "name"));
+		
+		Assertions.assertEquals(3, first.getNumberOfElements());
+		Assertions.assertTrue(first.hasNext());
+		Assertions.assertEquals(2, second.getNumberOfElements());
+		Assertions.assertFalse(second.hasNext());
+		Assertions.assertEquals(countClientByIncome, repository.countByIncomeGreaterThanEqual(4000.0));
+	}
+	
+	@Test
+	public void incomeStatsShouldAggregateInTheDatabase() {
+		IncomeStatsDTO total = repository.incomeStats(List.of(0.5, 0.999), false).get(0);
+		List<IncomeStatsDTO> groups = repository.incomeStats(List.of(0.5), true);
+		
+		Assertions.assertEquals(countTotalClients, total.getCount());
+		Assertions.assertEquals(1500.0, total.getMin());
+		Assertions.assertEquals(10000.0, total.getMax());
+		Assertions.assertEquals(47300.0 / 12, total.getAvg(), 0.001);
+		Assertions.assertEquals(3150.0, total.getPercentiles().get("p50"), 0.001);
+		Assertions.assertTrue(total.getPercentiles().containsKey("p99.9"));
+		Assertions.assertEquals(0, groups.get(0).getChildren());
+		Assertions.assertEquals(6L, groups.get(0).getCount());
+		Assertions.assertEquals(countTotalClients, groups.stream().mapToLong(IncomeStatsDTO::getCount).sum());
+	}
+	
+	@Test
+	public void incomeHistogramShouldCountRowsPerBucket() {
+		Map<Integer, long[]> total = repository.incomeHistogram(1500.0, 4250.0, 2, false);
+		Map<Integer, long[]> byChildren = repository.incomeHistogram(1500.0, 4250.0, 2, true);
+		
+		Assertions.assertArrayEquals(new long[] { 10, 2 }, total.get(null));
+		Assertions.assertArrayEquals(new long[] { 4, 2 }, byChildren.get(0));
+	}
+	
+	@Test
+	public void incomeHistogramShouldCountIncomesBelowMinInTheFirstBucket() {
+		Map<Integer, long[]> total = repository.incomeHistogram(2000.0, 4000.0, 2, false);
+		
+		Assertions.assertArrayEquals(new long[] { 10, 2 }, total.get(null));
+	}
+	
+	@Test
+	public void findAllWithSpecificationShouldCombineCriteria() {
+		ClientFilterDTO filter = new ClientFilterDTO();
+		filter.setName("c");
+		filter.setMinIncome(2000.0);
+		
+		List<Client> result = repository.findAll(ClientSpecifications.matching(filter));
+		
+		Assertions.assertEquals(2, result.size());
+		Assertions.assertTrue(result.stream().allMatch(x -> x.getName().startsWith("C") && x.getIncome() >= 2000.0));
+	}
+	
+	@Test
+	public void findAllWithSpecificationShouldFilterBirthDateAndChildrenRanges() {
+		ClientFilterDTO filter = new ClientFilterDTO();
+		filter.setMaxBirthDate(Instant.parse("1980-01-01T00:00:00Z"));
+		filter.setMinChildren(1);
+		filter.setMaxChildren(3);
+		
+		Page<Client> result = repository.findAll(ClientSpecifications.matching(filter), PageRequest.of(0, 2));
+		
+		Assertions.assertEquals(3, result.getTotalElements());
+		Assertions.assertEquals(2, result.getContent().size());
+	}
+	
+	@Test
+	public void findAllWithSpecificationShouldTreatLikeWildcardsLiterally() {
+		ClientFilterDTO filter = new ClientFilterDTO();
+		filter.setName("%");
+		
+		Assertions.assertTrue(repository.findAll(ClientSpecifications.matching(filter)).isEmpty());
+		Assertions.assertEquals(countTotalClients, repository.findAll(ClientSpecifications.matching(new ClientFilterDTO())).size());
+	}
+	
+	@Test
+	public void findAllByIdInOrderShouldKeepRequestOrderAndReturnNullForUnknownIds() {
+		List<Client> result = repository.findAllByIdInOrder(List.of(3L, nonExistingId, 1L, 2L), 2);
+		
+		Assertions.assertEquals(4, result.size());
+		Assertions.assertEquals(3L, result.get(0).getId());
+		Assertions.assertNull(result.get(1));
+		Assertions.assertEquals(1L, result.get(2).getId());
+		Assertions.assertEquals(2L, result.get(3).getId());
+	}
+	
+	@Test
+	public void searchQueryPlansShouldUseClientIndexes() {
+		ClientFilterDTO byName = new ClientFilterDTO();
+		byName.setName("cla");
+		ClientFilterDTO byBirthDate = new ClientFilterDTO();
+		byBirthDate.setMaxBirthDate(Instant.parse("1950-01-01T00:00:00Z"));
+		ClientFilterDTO byCpf = new ClientFilterDTO();
+		byCpf.setCpf("10204374161");
+		
+		// the pattern and its escape character are bound as parameters
+		Assertions.assertTrue(explainGenerated(() -> repository.findAll(ClientSpecifications.matching(byName)),
+				"CLA%", "\\").contains("IDX_CLIENT_NAME_UPPER"));
+		Assertions.assertTrue(explainGenerated(() -> repository.findAll(ClientSpecifications.matching(byBirthDate)))
+				.contains("IDX_CLIENT_BIRTH_DATE"));
+		Assertions.assertTrue(explainGenerated(() -> repository.findAll(ClientSpecifications.matching(byCpf)))
+				.contains("UK_CLIENT_CPF"));
+	}
+	
+	/*
+	 * EXPLAIN of the first SELECT Hibernate generated for the query. Parameters are bound
+	 * in order where given and left unbound otherwise; H2 only turns LIKE ? into an index
+	 * range once the pattern is known.
+	 */
+	private String explainGenerated(Runnable query, Object... parameters) {
+		return explain("EXPLAIN ", query, parameters);
+	}
+	
+	// runs the statement: the plan then carries the rows each index cursor read (scanCount)
+	private String explainAnalyzeGenerated(Runnable query, Object... parameters) {
+		return explain("EXPLAIN ANALYZE ", query, parameters);
+	}
+	
+	private static long scanCount(String plan) {
+		Matcher matcher = Pattern.compile("scanCount: (\\d+)").matcher(plan);
+		Assertions.assertTrue(matcher.find(), plan);
+		return Long.parseLong(matcher.group(1));
+	}
+	
+	private String explain(String explain, Runnable query, Object... parameters) {
+		em.getEntityManagerFactory().unwrap(SessionFactory.class).getCache().evictAllRegions();
+		CapturedStatements.clear();
+		query.run();
+		String sql = CapturedStatements.all().stream().filter(x -> x.toLowerCase().startsWith("select")).findFirst()
+				.orElseThrow();
+		return em.unwrap(Session.class).doReturningWork(connection -> {
+			try (PreparedStatement statement = connection.prepareStatement(explain + sql)) {
+				for (int i = 0; i < parameters.length; i++) {
+					statement.setObject(i + 1, parameters[i]);
+				}
+				try (ResultSet plan = statement.executeQuery()) {
+					plan.next();
+					return plan.getString(1);
+				}
+			}
+		});
+	}
+	
 }
@@ -15,6 +15,7 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
@@ -39,6 +40,9 @@ public class ClientServiceTests {
 	@Mock
 	private ClientRepository repository;
 
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
 	private long existingId;
 	private long nonExistingId;
 	private long dependentId;
@@ -47,6 +51,7 @@ public class ClientServiceTests {
 	private Pageable pageable;
 	private PageRequest pageRequest;
 	private PageImpl<Client> page;
+	private PageImpl<ClientDTO> dtoPage;
 	private Double income;
 
 	@BeforeEach
@@ -59,6 +64,7 @@ public class ClientServiceTests {
 		clientDTO = ClientFactory.createClientDTO();
 		pageRequest = PageRequest.of(0, 6);
 		page = new PageImpl<>(List.of(client));
+		dtoPage = new PageImpl<>(List.of(clientDTO));
 		income = 2000.00;
 
 		// Configurando comportamento para o meu mock
@@ -69,13 +75,9 @@ public class ClientServiceTests {
 
 		Mockito.doThrow(DataIntegrityViolationException.class).when(repository).deleteById(dependentId);
 
-		Mockito.when(repository.findById(existingId)).thenReturn(Optional.of(client));
-
-		Mockito.when(repository.findById(nonExistingId)).thenReturn(Optional.empty());
-
-		Mockito.when(repository.findAll(pageable)).thenReturn(page);
+		Mockito.when(repository.findAllProjected(pageable)).thenReturn(dtoPage);
 
-		Mockito.when(repository.findByIncome(ArgumentMatchers.anyDouble(), ArgumentMatchers.any())).thenReturn(page);
+		Mockito.when(repository.findByIncomeSliced(ArgumentMatchers.anyDouble(), ArgumentMatchers.any())).thenReturn(dtoPage);
 
 		Mockito.when(repository.findById(existingId)).thenReturn(Optional.of(client));
 
@@ -126,7 +128,7 @@ public class ClientServiceTests {
 		Assertions.assertNotNull(result);
 		Assertions.assertFalse(result.isEmpty());
 
-		Mockito.verify(repository, Mockito.times(1)).findAll(pageRequest);
+		Mockito.verify(repository, Mockito.times(1)).findAllProjected(pageRequest);
 	}
 
 	@Test
@@ -134,7 +136,8 @@ public class ClientServiceTests {
 	public void findByIncomeShouldReturnPage() {
 		Page<ClientDTO> result = service.findByIncome(income, pageRequest);
 		Assertions.assertNotNull(result);
-		Mockito.verify(repository, Mockito.times(1)).findByIncome(income, pageRequest);
+		Mockito.verify(repository, Mockito.times(1)).findByIncomeSliced(income, pageRequest);
+		Mockito.verify(repository, Mockito.times(1)).countByIncomeGreaterThanEqual(income);
 	}
 
 	@Test
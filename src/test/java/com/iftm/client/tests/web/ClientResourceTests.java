@@ -1,20 +1,37 @@
 package com.iftm.client.tests.web;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -23,15 +40,37 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.iftm.client.config.WireFormatConfig;
+import com.iftm.client.dto.ClientChangeDTO;
 import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.ClientListVersionDTO;
+import com.iftm.client.dto.ClientLookupDTO;
+import com.iftm.client.dto.ClientNameMatchDTO;
+import com.iftm.client.dto.ClientVersionDTO;
+import com.iftm.client.dto.CursorPageDTO;
+import com.iftm.client.dto.IncomeStatsDTO;
+import com.iftm.client.dto.PageDTO;
+import com.iftm.client.entities.ClientChangeType;
+import com.iftm.client.services.ClientBatchLoader;
 import com.iftm.client.services.ClientService;
+import com.iftm.client.services.CountMode;
+import com.iftm.client.services.ExportFormat;
 import com.iftm.client.services.exceptions.DatabaseException;
+import com.iftm.client.services.exceptions.InvalidRequestException;
 import com.iftm.client.services.exceptions.ResourceNotFoundException;
+import com.iftm.client.services.exceptions.VersionConflictException;
 import com.iftm.client.tests.factory.ClientFactory;
 
 @SpringBootTest
@@ -44,6 +83,9 @@ public class ClientResourceTests {
 	@MockBean
 	private ClientService service;
 
+	@MockBean
+	private ClientBatchLoader batchLoader;
+
 	@Autowired
 	private ObjectMapper objectMapper;
 
@@ -69,15 +111,44 @@ public class ClientResourceTests {
 
 		when(service.findById(existingId)).thenReturn(clientDTO);
 		when(service.findById(nonExistingId)).thenThrow(ResourceNotFoundException.class);
+		when(service.findVersion(existingId)).thenReturn(new ClientVersionDTO(3L, Instant.parse("2020-07-13T20:50:00Z")));
+		when(service.findListVersion(any())).thenReturn(new ClientListVersionDTO(12L, Instant.parse("2020-07-13T20:50:00Z")));
 
 		when(service.findAll()).thenReturn(list);
-		when(service.findAllPaged(any())).thenReturn(page);
+		when(service.findAllPaged(any(), eq(CountMode.EXACT))).thenReturn(page);
+		when(service.findAllPaged(any(), anyLong())).thenReturn(page);
+		when(service.findAllPaged(any(), eq(CountMode.NONE))).thenReturn(new SliceImpl<>(List.of(clientDTO)));
+		when(service.search(any(), any())).thenReturn(page);
+		ClientChangeDTO change = new ClientChangeDTO();
+		change.setId(41L);
+		change.setType(ClientChangeType.INSERT);
+		change.setClient("{\"id\":1,\"name\":\"Conceição Evaristo\"}");
+		when(service.findChanges(eq("40"), anyInt())).thenReturn(new CursorPageDTO<>(List.of(change), 1, false, "41"));
+		when(service.incomeStats(any(), anyInt(), anyBoolean()))
+				.thenReturn(new IncomeStatsDTO(null, 12L, 1500.0, 10000.0, 3941.0));
+		when(service.searchByName(eq("conceicao"), anyInt()))
+				.thenReturn(List.of(new ClientNameMatchDTO(existingId, "Conceição Evaristo", 2.5)));
+
+		when(service.findAllSeek(isNull(), anyInt(), any(), any()))
+				.thenReturn(new CursorPageDTO<>(List.of(clientDTO), 1, true, "next"));
+		when(service.findAllSeek(eq("invalid"), anyInt(), any(), any())).thenThrow(InvalidRequestException.class);
+
+		doAnswer(invocation -> {
+			OutputStream out = invocation.getArgument(1);
+			out.write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+			return null;
+		}).when(service).export(eq(ExportFormat.NDJSON), any());
 
 		when(service.insert(any())).thenReturn(clientDTO);
+		when(service.insertAll(any())).thenReturn(List.of(clientDTO, clientDTO));
 
 		when(service.update(eq(existingId), any())).thenReturn(clientDTO);
 		when(service.update(eq(nonExistingId), any())).thenThrow(ResourceNotFoundException.class);
 
+		when(service.patch(eq(existingId), eq(3L), any())).thenReturn(4L);
+		when(service.deleteAll(any())).thenReturn(2L);
+		when(service.patch(eq(existingId), eq(1L), any())).thenThrow(VersionConflictException.class);
+
 		doNothing().when(service).delete(existingId);
 		doThrow(ResourceNotFoundException.class).when(service).delete(nonExistingId);
 		doThrow(DatabaseException.class).when(service).delete(dependentId);
@@ -149,6 +220,62 @@ public class ClientResourceTests {
 
 	}
 
+	@Test
+	public void findAllShouldReturnLeanCborPageWhenCborIsAccepted() throws Exception {
+		MvcResult result = mockMvc.perform(get("/clients").accept(WireFormatConfig.CBOR))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(WireFormatConfig.CBOR))
+				.andReturn();
+
+		ObjectMapper cbor = new ObjectMapper(new CBORFactory()).findAndRegisterModules()
+				.disable(DeserializationFeature.READ_DATE_TIMESTAMPS_AS_NANOSECONDS);
+		PageDTO<ClientDTO> page = cbor.readValue(result.getResponse().getContentAsByteArray(),
+				new TypeReference<PageDTO<ClientDTO>>() {});
+		Assertions.assertEquals(clientDTO.getId(), page.getContent().get(0).getId());
+		Assertions.assertEquals(clientDTO.getBirthDate(), page.getContent().get(0).getBirthDate());
+		Assertions.assertEquals(1L, page.getTotalElements());
+		Assertions.assertFalse(page.getHasNext());
+	}
+
+	@Test
+	public void findAllShouldReturnLeanPageWhenPageJsonIsAccepted() throws Exception {
+		ResultActions result = mockMvc.perform(get("/clients").accept(WireFormatConfig.PAGE_JSON));
+
+		result.andExpect(status().isOk());
+		result.andExpect(content().contentTypeCompatibleWith(WireFormatConfig.PAGE_JSON));
+		result.andExpect(jsonPath("$.content[0].id").value(existingId));
+		result.andExpect(jsonPath("$.totalElements").value(1));
+		result.andExpect(jsonPath("$.hasNext").value(false));
+		result.andExpect(jsonPath("$.pageable").doesNotExist());
+	}
+
+	@Test
+	public void findAllShouldReturnColumnarPageWhenColumnsJsonIsAccepted() throws Exception {
+		ResultActions result = mockMvc.perform(get("/clients").param("count", "none")
+				.accept(WireFormatConfig.COLUMNS_JSON));
+
+		result.andExpect(status().isOk());
+		result.andExpect(content().contentTypeCompatibleWith(WireFormatConfig.COLUMNS_JSON));
+		result.andExpect(jsonPath("$.columns[0]").value("id"));
+		result.andExpect(jsonPath("$.columns[1]").value("name"));
+		result.andExpect(jsonPath("$.rows[0][0]").value(existingId));
+		result.andExpect(jsonPath("$.rows[0][1]").value(clientDTO.getName()));
+		result.andExpect(jsonPath("$.totalElements").doesNotExist());
+		result.andExpect(jsonPath("$.content").doesNotExist());
+	}
+
+	@Test
+	public void findByIdShouldReturnSmileWhenSmileIsAccepted() throws Exception {
+		MvcResult result = mockMvc.perform(get("/clients/{id}", existingId).accept(WireFormatConfig.SMILE))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(WireFormatConfig.SMILE))
+				.andReturn();
+
+		ObjectMapper smile = new ObjectMapper(new SmileFactory()).findAndRegisterModules();
+		ClientDTO dto = smile.readValue(result.getResponse().getContentAsByteArray(), ClientDTO.class);
+		Assertions.assertEquals(clientDTO.getName(), dto.getName());
+	}
+
 	@Test
 	public void findAllShouldReturnList() throws Exception {
 
@@ -178,5 +305,333 @@ public class ClientResourceTests {
 
 		result.andExpect(status().isNotFound());
 	}
+	
+	@Test
+	public void findAllByIdShouldReturnFoundClientsAndMissingIds() throws Exception {
+		when(service.findAllById(List.of(existingId, nonExistingId)))
+				.thenReturn(new ClientLookupDTO(List.of(clientDTO), List.of(nonExistingId)));
+
+		ResultActions result = mockMvc.perform(get("/clients").param("ids", existingId + "," + nonExistingId)
+				.accept(MediaType.APPLICATION_JSON));
+
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.content[0].id").value(existingId));
+		result.andExpect(jsonPath("$.missing[0]").value(nonExistingId));
+		verify(service, never()).findAllPaged(any(), any());
+	}
+
+	@Test
+	public void lookupShouldReturnFoundClientsAndMissingIds() throws Exception {
+		when(service.findAllById(List.of(existingId, nonExistingId)))
+				.thenReturn(new ClientLookupDTO(List.of(clientDTO), List.of(nonExistingId)));
+
+		ResultActions result = mockMvc.perform(post("/clients/lookup")
+				.content(objectMapper.writeValueAsString(List.of(existingId, nonExistingId)))
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON));
+
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.content[0].id").value(existingId));
+		result.andExpect(jsonPath("$.missing[0]").value(nonExistingId));
+	}
+
+	@Test
+	public void lookupShouldReturnBadRequestWhenTooManyIds() throws Exception {
+		when(service.findAllById(any())).thenThrow(InvalidRequestException.class);
+
+		ResultActions result = mockMvc.perform(post("/clients/lookup")
+				.content("[1,2,3]")
+				.contentType(MediaType.APPLICATION_JSON));
+
+		result.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void findByIdShouldGoThroughBatchLoaderWhenEnabled() throws Exception {
+		when(batchLoader.isEnabled()).thenReturn(true);
+		when(batchLoader.load(existingId)).thenReturn(clientDTO);
+
+		ResultActions result = mockMvc.perform(get("/clients/{id}", existingId).accept(MediaType.APPLICATION_JSON));
+
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.id").value(existingId));
+		verify(service, never()).findById(any());
+	}
+	
+	@Test
+	public void findAllSeekShouldReturnCursorPage() throws Exception {
+		ResultActions result = mockMvc.perform(get("/clients/seek").accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.content[0].id").value(existingId));
+		result.andExpect(jsonPath("$.hasNext").value(true));
+		result.andExpect(jsonPath("$.nextCursor").value("next"));
+		result.andExpect(jsonPath("$.totalElements").doesNotExist());
+	}
+	
+	@Test
+	public void findAllSeekShouldReturnBadRequestWhenCursorIsInvalid() throws Exception {
+		ResultActions result = mockMvc.perform(get("/clients/seek").param("cursor", "invalid")
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	public void exportShouldStreamNdjson() throws Exception {
+		MvcResult started = mockMvc.perform(get("/clients/export")).andExpect(request().asyncStarted()).andReturn();
+		
+		ResultActions result = mockMvc.perform(asyncDispatch(started));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(content().contentType("application/x-ndjson"));
+		result.andExpect(content().string("{\"id\":1}\n"));
+	}
+	
+	@Test
+	public void exportShouldReturnBadRequestWhenFormatIsUnknown() throws Exception {
+		ResultActions result = mockMvc.perform(get("/clients/export").param("format", "xml"));
+		
+		result.andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	public void insertAllShouldReturnSavedClients() throws Exception {
+		String jsonBody = objectMapper.writeValueAsString(List.of(newClientDTO, newClientDTO));
+		ResultActions result = mockMvc.perform(post("/clients/batch").content(jsonBody)
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.length()").value(2));
+	}
+	
+	@Test
+	public void patchShouldReturnNoContentWithNewETagWhenIfMatchIsCurrent() throws Exception {
+		ResultActions result = mockMvc.perform(patch("/clients/{id}", existingId).header("If-Match", "\"3\"")
+				.content("{\"income\":5000.0}").contentType(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isNoContent());
+		result.andExpect(header().string("ETag", "\"4\""));
+	}
+	
+	@Test
+	public void patchShouldReturnPreconditionFailedWhenIfMatchIsStale() throws Exception {
+		ResultActions result = mockMvc.perform(patch("/clients/{id}", existingId).header("If-Match", "\"1\"")
+				.content("{\"income\":5000.0}").contentType(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isPreconditionFailed());
+	}
+	
+	@Test
+	public void patchShouldReturnBadRequestWhenIfMatchIsInvalid() throws Exception {
+		ResultActions result = mockMvc.perform(patch("/clients/{id}", existingId).header("If-Match", "abc")
+				.content("{\"income\":5000.0}").contentType(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	public void findByIdShouldReturnNotModifiedWhenIfNoneMatchIsCurrent() throws Exception {
+		ResultActions result = mockMvc.perform(get("/clients/{id}", existingId).header("If-None-Match", "\"3\""));
+		
+		result.andExpect(status().isNotModified());
+		result.andExpect(header().string("ETag", "\"3\""));
+		result.andExpect(content().string(""));
+		verify(service, never()).findById(existingId);
+	}
+	
+	@Test
+	public void findByIdShouldReturnClientWhenIfNoneMatchIsStale() throws Exception {
+		ResultActions result = mockMvc.perform(get("/clients/{id}", existingId).header("If-None-Match", "\"2\""));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.id").value(existingId));
+		result.andExpect(header().string("Cache-Control", "no-cache, private"));
+	}
+	
+	@Test
+	public void findAllShouldReturnNotModifiedWhenListIsUnchanged() throws Exception {
+		String eTag = mockMvc.perform(get("/clients")).andExpect(status().isOk()).andReturn().getResponse()
+				.getHeader("ETag");
+		
+		ResultActions result = mockMvc.perform(get("/clients").header("If-None-Match", eTag));
+		
+		result.andExpect(status().isNotModified());
+		result.andExpect(content().string(""));
+	}
+	
+	@Test
+	public void findByIdShouldTagEachRepresentationAndVaryByAccept() throws Exception {
+		ResultActions jsonTag = mockMvc.perform(get("/clients/{id}", existingId).accept(WireFormatConfig.SMILE)
+				.header("If-None-Match", "\"3\""));
+		
+		jsonTag.andExpect(status().isOk());
+		jsonTag.andExpect(content().contentTypeCompatibleWith(WireFormatConfig.SMILE));
+		jsonTag.andExpect(header().string("Vary", "Accept"));
+		
+		ResultActions smile = mockMvc.perform(get("/clients/{id}", existingId).accept(WireFormatConfig.SMILE)
+				.header("If-None-Match", "\"3-x-jackson-smile\""));
+		
+		smile.andExpect(status().isNotModified());
+		smile.andExpect(header().string("ETag", "\"3-x-jackson-smile\""));
+		smile.andExpect(header().string("Vary", "Accept"));
+	}
+	
+	@Test
+	public void findAllShouldTagEachRepresentationAndVaryByAccept() throws Exception {
+		MockHttpServletResponse json = mockMvc.perform(get("/clients").accept(MediaType.APPLICATION_JSON))
+				.andReturn().getResponse();
+		MockHttpServletResponse cbor = mockMvc.perform(get("/clients").accept(WireFormatConfig.CBOR)).andReturn()
+				.getResponse();
+		MockHttpServletResponse page = mockMvc.perform(get("/clients").accept(WireFormatConfig.PAGE_JSON))
+				.andReturn().getResponse();
+		
+		Assertions.assertNotEquals(json.getHeader("ETag"), cbor.getHeader("ETag"));
+		Assertions.assertNotEquals(json.getHeader("ETag"), page.getHeader("ETag"));
+		Assertions.assertEquals("Accept", json.getHeader("Vary"));
+		Assertions.assertEquals("Accept", cbor.getHeader("Vary"));
+		mockMvc.perform(get("/clients").accept(WireFormatConfig.CBOR).header("If-None-Match", json.getHeader("ETag")))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/clients").accept(WireFormatConfig.CBOR).header("If-None-Match", cbor.getHeader("ETag")))
+				.andExpect(status().isNotModified());
+	}
+	
+	@Test
+	public void patchShouldAcceptTheETagOfAnyRepresentationInIfMatch() throws Exception {
+		ResultActions result = mockMvc.perform(patch("/clients/{id}", existingId).header("If-Match", "\"3-cbor\"")
+				.accept(WireFormatConfig.CBOR).content("{\"income\":5000.0}").contentType(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isNoContent());
+		result.andExpect(header().string("ETag", "\"4-cbor\""));
+	}
+	
+	@Test
+	public void findAllShouldTakeTotalFromListVersionWhenCountIsExact() throws Exception {
+		ResultActions result = mockMvc.perform(get("/clients").accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(header().exists("ETag"));
+		verify(service).findAllPaged(any(), eq(12L));
+		verify(service, never()).findAllPaged(any(), eq(CountMode.EXACT));
+	}
+	
+	@Test
+	public void findAllShouldNotQueryListVersionWhenCountIsNoneAndRequestIsUnconditional() throws Exception {
+		ResultActions result = mockMvc.perform(get("/clients").param("count", "none").accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(header().doesNotExist("ETag"));
+		verify(service, never()).findListVersion(any());
+	}
+	
+	@Test
+	public void findAllShouldReturnNotModifiedWhenCountIsNoneAndListIsUnchanged() throws Exception {
+		String eTag = mockMvc.perform(get("/clients")).andReturn().getResponse().getHeader("ETag");
+		
+		ResultActions result = mockMvc.perform(get("/clients").param("count", "none").header("If-None-Match", eTag));
+		
+		result.andExpect(status().isNotModified());
+		verify(service, never()).findAllPaged(any(), eq(CountMode.NONE));
+	}
+	
+	@Test
+	public void deleteAllShouldReturnAffectedRows() throws Exception {
+		ResultActions result = mockMvc.perform(post("/clients/batch/delete").content("[1, 2, 1000]")
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.affectedRows").value(2));
+	}
+	
+	@Test
+	public void adjustIncomeShouldReturnBadRequestWhenFactorIsMissing() throws Exception {
+		ResultActions result = mockMvc.perform(patch("/clients/by-income").param("minIncome", "1000"));
+		
+		result.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void searchShouldBindFilterFromQueryString() throws Exception {
+		ResultActions result = mockMvc.perform(get("/clients/search").param("name", "cla").param("minIncome", "1000")
+				.param("maxBirthDate", "1980-01-01T00:00:00Z").param("minChildren", "1")
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.content").exists());
+		verify(service).search(argThat(f -> "cla".equals(f.getName()) && f.getMinIncome() == 1000.0
+				&& Instant.parse("1980-01-01T00:00:00Z").equals(f.getMaxBirthDate()) && f.getMinChildren() == 1
+				&& f.getMaxIncome() == null && f.getCpf() == null), any());
+	}
+
+	@Test
+	public void findAllShouldReturnSliceWithoutTotalsWhenCountIsNone() throws Exception {
+		ResultActions result = mockMvc.perform(get("/clients").param("count", "none").accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.content[0].id").value(existingId));
+		result.andExpect(jsonPath("$.last").value(true));
+		result.andExpect(jsonPath("$.totalElements").doesNotExist());
+	}
+	
+	@Test
+	public void findAllShouldReturnBadRequestWhenCountModeIsUnknown() throws Exception {
+		ResultActions result = mockMvc.perform(get("/clients").param("count", "maybe"));
+		
+		result.andExpect(status().isBadRequest());
+		verify(service, never()).findListVersion(any());
+	}
+
+	@Test
+	public void searchByNameShouldReturnRankedMatches() throws Exception {
+		ResultActions result = mockMvc.perform(get("/clients/search/name").param("q", "conceicao")
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$[0].id").value(existingId));
+		result.andExpect(jsonPath("$[0].score").value(2.5));
+	}
+	
+	@Test
+	public void searchByNameShouldReturnBadRequestWhenQueryIsMissing() throws Exception {
+		ResultActions result = mockMvc.perform(get("/clients/search/name"));
+		
+		result.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void incomeStatsShouldParsePercentilesAndGrouping() throws Exception {
+		ResultActions result = mockMvc.perform(get("/clients/stats/income").param("percentiles", "0.25,0.75")
+				.param("buckets", "5").param("groupBy", "children").accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.count").value(12));
+		verify(service).incomeStats(List.of(0.25, 0.75), 5, true);
+	}
+	
+	@Test
+	public void incomeStatsShouldReturnBadRequestWhenGroupByIsUnknown() throws Exception {
+		ResultActions result = mockMvc.perform(get("/clients/stats/income").param("groupBy", "cpf"));
+		
+		result.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void liveIncomeStatsShouldReturnBadRequestWhenGroupByIsUnknown() throws Exception {
+		ResultActions result = mockMvc.perform(get("/clients/stats/income/live").param("groupBy", "income"));
+		
+		result.andExpect(status().isBadRequest());
+		verify(service, never()).liveIncomeStats(any(), any());
+	}
+
+	@Test
+	public void findChangesShouldEmbedClientJsonAndReturnNextCursor() throws Exception {
+		ResultActions result = mockMvc.perform(get("/clients/changes").param("since", "40")
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.content[0].type").value("INSERT"));
+		result.andExpect(jsonPath("$.content[0].client.name").value("Conceição Evaristo"));
+		result.andExpect(jsonPath("$.nextCursor").value("41"));
+	}
 
 }